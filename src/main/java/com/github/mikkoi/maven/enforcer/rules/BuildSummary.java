@@ -0,0 +1,126 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summary of all executions of the rule in the build.
+ * Every execution records its time and size in the data of the execution request,
+ * and {@link BuildSummarySpy} formats the summary when the session ends.
+ * The records are plain maps, because the spy is loaded as a build extension,
+ * i.e. in another class realm than the rule.
+ */
+final class BuildSummary {
+
+    /**
+     * Constant value: Key of the records in the data of the execution request.
+     */
+    static final String DATA_KEY = "com.github.mikkoi.maven.enforcer.rules.DependOnAllProjects.executions";
+    /**
+     * Constant value: Key of the project which executed the rule, "groupId:artifactId".
+     */
+    static final String PROJECT = "project";
+    /**
+     * Constant value: Key of the time of the execution in nanoseconds.
+     */
+    static final String NANOS = "nanos";
+    /**
+     * Constant value: Key of the number of projects in the build.
+     */
+    static final String PROJECTS = "projects";
+    /**
+     * Constant value: Key of the number of patterns and selectors.
+     */
+    static final String PATTERNS = "patterns";
+    /**
+     * Constant value: Key of the number of violations.
+     */
+    static final String VIOLATIONS = "violations";
+    /**
+     * Constant value: Number of the slowest executions in the summary.
+     */
+    static final int SLOWEST = 3;
+
+    private BuildSummary() {
+    }
+
+    /**
+     * Record an execution.
+     *
+     * @param session    the session
+     * @param project    the project which executed the rule, "groupId:artifactId"
+     * @param nanos      time of the execution
+     * @param projects   number of projects in the build
+     * @param patterns   number of patterns and selectors
+     * @param violations number of violations
+     */
+    static void record(MavenSession session, String project, long nanos, int projects, int patterns,
+                       int violations) {
+        final MavenExecutionRequest request = session.getRequest();
+        if (request == null) {
+            return;
+        }
+        final Map<String, Object> record = new HashMap<>();
+        record.put(PROJECT, project);
+        record.put(NANOS, nanos);
+        record.put(PROJECTS, projects);
+        record.put(PATTERNS, patterns);
+        record.put(VIOLATIONS, violations);
+        records(request).add(record);
+    }
+
+    /**
+     * The records of the build. Executions in parallel builds add to the same queue.
+     *
+     * @param request the execution request
+     * @return the records
+     */
+    @SuppressWarnings("unchecked")
+    static Queue<Map<String, Object>> records(MavenExecutionRequest request) {
+        final Map<String, Object> data = request.getData();
+        synchronized (data) {
+            return (Queue<Map<String, Object>>) data.computeIfAbsent(DATA_KEY, k -> new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * Format the summary.
+     *
+     * @param records the records
+     * @return e.g. "dependOnAllProjects: 40 executions in 120 ms, 2000 projects and 80 patterns evaluated,
+     *     2 violations. Slowest: com.acme:all 30 ms, com.acme:services 12 ms, com.acme:libs 9 ms"
+     */
+    static String format(Collection<Map<String, Object>> records) {
+        long nanos = 0;
+        long projects = 0;
+        long patterns = 0;
+        long violations = 0;
+        for (Map<String, Object> record : records) {
+            nanos += ((Number) record.get(NANOS)).longValue();
+            projects += ((Number) record.get(PROJECTS)).longValue();
+            patterns += ((Number) record.get(PATTERNS)).longValue();
+            violations += ((Number) record.get(VIOLATIONS)).longValue();
+        }
+        final List<Map<String, Object>> slowest = new ArrayList<>(records);
+        slowest.sort((a, b) -> Long.compare(((Number) b.get(NANOS)).longValue(), ((Number) a.get(NANOS)).longValue()));
+        final StringBuilder sb = new StringBuilder(String.format(
+            "dependOnAllProjects: %d executions in %d ms, %d projects and %d patterns evaluated, %d violations.",
+            records.size(), TimeUnit.NANOSECONDS.toMillis(nanos), projects, patterns, violations));
+        for (int i = 0; i < slowest.size() && i < SLOWEST; i++) {
+            sb.append(i == 0 ? " Slowest: " : ", ")
+                .append(slowest.get(i).get(PROJECT)).append(' ')
+                .append(TimeUnit.NANOSECONDS.toMillis(((Number) slowest.get(i).get(NANOS)).longValue()))
+                .append(" ms");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import org.apache.maven.eventspy.AbstractEventSpy;
+import org.apache.maven.execution.ExecutionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Logs the summary of all executions of the rule in the build when the session ends,
+ * see {@link BuildSummary}. Active when this artifact is added to the build as an extension.
+ * Nothing is logged if the rule was not executed.
+ */
+@Named("dependOnAllProjectsSummary")
+@Singleton
+public final class BuildSummarySpy extends AbstractEventSpy {
+
+    /**
+     * Logger of the build, for the summary.
+     */
+    private final Logger logger = LoggerFactory.getLogger(BuildSummarySpy.class);
+
+    @Override
+    public void onEvent(Object event) {
+        if (!(event instanceof ExecutionEvent)) {
+            return;
+        }
+        final ExecutionEvent executionEvent = (ExecutionEvent) event;
+        if (executionEvent.getType() != ExecutionEvent.Type.SessionEnded || executionEvent.getSession() == null
+            || executionEvent.getSession().getRequest() == null) {
+            return;
+        }
+        final Queue<Map<String, Object>> records = BuildSummary.records(executionEvent.getSession().getRequest());
+        if (!records.isEmpty()) {
+            logger.info(BuildSummary.format(records));
+        }
+    }
+}
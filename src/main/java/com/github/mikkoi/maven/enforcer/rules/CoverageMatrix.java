@@ -0,0 +1,298 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Build-wide matrix of which projects (modules) are covered by which aggregators,
+ * i.e. the projects which execute this rule.
+ * Every execution of the rule appends one column when it finishes.
+ * Columns of the same build are written to one shared file under the target directory of the top level project.
+ * The first line of the file is a comment with the id of the build; a file of another build is started anew.
+ * Format 'csv' appends one row per module and aggregator: module,aggregator,status.
+ * Status is 'covered', 'missing' or 'not-selected'.
+ * Format 'dot' appends the edges of the aggregator to a Graphviz digraph before its closing brace,
+ * and restyles a module when its status across all aggregators changes.
+ * Writes are serialized with a lock in the JVM and a file lock, so parallel builds (-T) are safe.
+ */
+final class CoverageMatrix {
+
+    /**
+     * Constant value: Do not export.
+     */
+    static final String FORMAT_NONE = "none";
+    /**
+     * Constant value: Export as CSV.
+     */
+    static final String FORMAT_CSV = "csv";
+    /**
+     * Constant value: Export as Graphviz DOT.
+     */
+    static final String FORMAT_DOT = "dot";
+    /**
+     * Constant value: Name of the file without extension.
+     */
+    static final String FILE_NAME = "dependOnAllProjects-coverage";
+    /**
+     * Constant value: Module is selected and the aggregator depends on it.
+     */
+    static final String COVERED = "covered";
+    /**
+     * Constant value: Module is selected but the aggregator does not depend on it.
+     */
+    static final String MISSING = "missing";
+    /**
+     * Constant value: Module is not selected by the aggregator.
+     */
+    static final String NOT_SELECTED = "not-selected";
+    /**
+     * Constant value: Statuses from the weakest to the strongest.
+     * The status of a module across all aggregators is the strongest of its statuses.
+     */
+    private static final List<String> STATUS_ORDER = Arrays.asList(NOT_SELECTED, MISSING, COVERED);
+    /**
+     * Constant value: Style of a module in DOT by its status across all aggregators.
+     * Red is reserved for the modules which are selected but which no aggregator depends on.
+     */
+    private static final Map<String, String> DOT_STYLES = new LinkedHashMap<>();
+    /**
+     * Constant value: Closing brace of the DOT digraph.
+     */
+    private static final String DOT_END = "}\n";
+    /**
+     * Constant value: Module style statement in DOT.
+     */
+    private static final Pattern DOT_MODULE = Pattern.compile("^ {4}\"([^\"]*)\" \\[(.*)\\];$");
+    /**
+     * Lock for all writes in this JVM.
+     */
+    private static final Object LOCK = new Object();
+    /**
+     * Status of the modules in the DOT files written by this class loader, by file.
+     * Only a cache: it is read again from the file when another writer has changed the file.
+     */
+    private static final Map<String, DotState> DOT_STATES = new HashMap<>();
+
+    static {
+        DOT_STYLES.put(NOT_SELECTED, "color=gray,fontcolor=gray");
+        DOT_STYLES.put(MISSING, "color=red");
+        DOT_STYLES.put(COVERED, "color=black");
+    }
+
+    private CoverageMatrix() {
+    }
+
+    /**
+     * The file the matrix is written to.
+     *
+     * @param directory the target directory of the top level project
+     * @param format    'csv' or 'dot'
+     * @return the file
+     */
+    static File file(File directory, String format) {
+        return new File(directory, FILE_NAME + "." + format);
+    }
+
+    /**
+     * Record the column of one aggregator and append it to the file.
+     *
+     * @param file       the file
+     * @param format     'csv' or 'dot'
+     * @param buildId    id of the build; the file is started anew when its first line has another build id
+     * @param aggregator id of the aggregator, i.e. the current project
+     * @param column     status of every module in the build, in the build order
+     * @throws IOException if writing fails
+     */
+    static void record(File file, String format, String buildId, String aggregator,
+                       Map<String, String> column) throws IOException {
+        synchronized (LOCK) {
+            Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                final FileLock lock = channel.lock();
+                try {
+                    if (FORMAT_DOT.equals(format)) {
+                        appendDot(file, channel, "// build: " + buildId, aggregator, column);
+                    } else {
+                        appendCsv(channel, "# build: " + buildId, aggregator, column);
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Append the rows of one aggregator to the CSV file.
+     * The file is truncated and the header is written when a new build starts.
+     *
+     * @param channel    the file, locked
+     * @param header     the first line of the file, with the build id
+     * @param aggregator id of the aggregator
+     * @param column     status of every module in the build
+     * @throws IOException if reading or writing fails
+     */
+    private static void appendCsv(FileChannel channel, String header, String aggregator,
+                                  Map<String, String> column) throws IOException {
+        final boolean newBuild = !header.equals(firstLine(channel));
+        final StringBuilder sb = new StringBuilder();
+        if (newBuild) {
+            channel.truncate(0);
+            sb.append(header).append('\n').append("module,aggregator,status\n");
+        }
+        for (Map.Entry<String, String> e : column.entrySet()) {
+            sb.append(e.getKey()).append(',').append(aggregator).append(',').append(e.getValue()).append('\n');
+        }
+        write(channel, channel.size(), sb);
+    }
+
+    /**
+     * Append the edges of one aggregator to the DOT file, in place of the closing brace.
+     * Edges go from aggregator to module. Missing dependencies are dashed red edges.
+     * A module is styled when it first appears and again when its status across all aggregators gets stronger,
+     * so the last style of every module in the file is its current one.
+     * The file is started anew when a new build starts or when it does not end with the closing brace.
+     *
+     * @param file       the file, the key of the cached status of its modules
+     * @param channel    the file, locked
+     * @param header     the first line of the file, with the build id
+     * @param aggregator id of the aggregator
+     * @param column     status of every module in the build
+     * @throws IOException if reading or writing fails
+     */
+    private static void appendDot(File file, FileChannel channel, String header, String aggregator,
+                                  Map<String, String> column) throws IOException {
+        final String key = file.getAbsolutePath();
+        final long size = channel.size();
+        final boolean newBuild = !header.equals(firstLine(channel)) || size < DOT_END.length()
+            || !DOT_END.equals(read(channel, size - DOT_END.length(), DOT_END.length()));
+        DotState state = DOT_STATES.get(key);
+        final StringBuilder sb = new StringBuilder();
+        if (newBuild) {
+            channel.truncate(0);
+            state = new DotState();
+            sb.append(header).append('\n').append("digraph coverage {\n").append("    rankdir=LR;\n");
+        } else if (state == null || !header.equals(state.header) || state.size != size) {
+            state = DotState.parse(read(channel, 0, (int) size));
+        }
+        state.header = header;
+        for (Map.Entry<String, String> e : column.entrySet()) {
+            final String previous = state.statuses.get(e.getKey());
+            if (previous == null || STATUS_ORDER.indexOf(e.getValue()) > STATUS_ORDER.indexOf(previous)) {
+                state.statuses.put(e.getKey(), e.getValue());
+                sb.append(String.format("    \"%s\" [%s];\n", e.getKey(), DOT_STYLES.get(e.getValue())));
+            }
+        }
+        sb.append(String.format("    \"%s\" [shape=box];\n", aggregator));
+        for (Map.Entry<String, String> e : column.entrySet()) {
+            if (COVERED.equals(e.getValue())) {
+                sb.append(String.format("    \"%s\" -> \"%s\";\n", aggregator, e.getKey()));
+            } else if (MISSING.equals(e.getValue())) {
+                sb.append(String.format("    \"%s\" -> \"%s\" [style=dashed,color=red];\n",
+                    aggregator, e.getKey()));
+            }
+        }
+        sb.append(DOT_END);
+        write(channel, newBuild ? 0 : size - DOT_END.length(), sb);
+        state.size = channel.size();
+        DOT_STATES.put(key, state);
+    }
+
+    /**
+     * The first line of the file, without the line break.
+     *
+     * @param channel the file
+     * @return the line, empty if the file is empty
+     * @throws IOException if reading fails
+     */
+    private static String firstLine(FileChannel channel) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        final ByteBuffer buffer = ByteBuffer.allocate(256);
+        long position = 0;
+        int n;
+        while ((n = channel.read(buffer, position)) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                final byte b = buffer.get();
+                if (b == '\n') {
+                    return new String(line.toByteArray(), StandardCharsets.UTF_8);
+                }
+                line.write(b);
+            }
+            position += n;
+            buffer.clear();
+        }
+        return new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String read(FileChannel channel, long position, int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        int n = 0;
+        // Until the buffer is full or the end of the file.
+        while (buffer.hasRemaining() && n >= 0) {
+            n = channel.read(buffer, position + buffer.position());
+        }
+        return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+    }
+
+    private static void write(FileChannel channel, long position, CharSequence text) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Status of the modules in a DOT file across all aggregators, and the file it was read from.
+     */
+    private static final class DotState {
+        /**
+         * Status of every module, in the build order.
+         */
+        private final Map<String, String> statuses = new LinkedHashMap<>();
+        /**
+         * First line of the file.
+         */
+        private String header;
+        /**
+         * Size of the file after the last write.
+         */
+        private long size = -1;
+
+        /**
+         * Read the status of the modules from their last styles in the file.
+         *
+         * @param content the content of the DOT file
+         * @return the status, without the header and the size
+         */
+        private static DotState parse(String content) {
+            final DotState state = new DotState();
+            for (String line : content.split("\r?\n")) {
+                final Matcher m = DOT_MODULE.matcher(line);
+                if (m.matches()) {
+                    for (Map.Entry<String, String> style : DOT_STYLES.entrySet()) {
+                        if (style.getValue().equals(m.group(2))) {
+                            state.statuses.put(m.group(1), style.getKey());
+                        }
+                    }
+                }
+            }
+            return state;
+        }
+    }
+}
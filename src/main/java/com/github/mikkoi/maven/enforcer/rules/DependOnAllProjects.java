@@ -4,17 +4,30 @@ import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
 import org.apache.maven.enforcer.rule.api.AbstractEnforcerRule;
 import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
 import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
 import org.apache.maven.model.Dependency;
+import org.apache.maven.model.InputLocation;
 import org.apache.maven.project.MavenProject;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Properties;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
@@ -30,7 +43,7 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
     /**
      * Constant value: Maximum number of parts in a dependency declaration.
      */
-    private static final int MAX_NUM_PARTS_IN_DEPENDENCY_DECLARATION = 3;
+    static final int MAX_NUM_PARTS_IN_DEPENDENCY_DECLARATION = 3;
     /**
      * Constant value for faking boolean parameter false.
      */
@@ -39,10 +52,63 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
      * Constant value for faking boolean parameter true.
      */
     private static final String TRUE = "true";
+    /**
+     * Constant value: Scopes accepted in a selection set.
+     */
+    private static final List<String> VALID_SCOPES =
+        Arrays.asList("compile", "provided", "runtime", "test", "system");
+    /**
+     * Constant value for parameter target: check the dependencies.
+     */
+    private static final String TARGET_DEPENDENCIES = "dependencies";
+    /**
+     * Constant value for parameter target: check the dependency management.
+     */
+    private static final String TARGET_DEPENDENCY_MANAGEMENT = "dependencyManagement";
+    /**
+     * Constant value for parameter timeBudgetAction: log a warning.
+     */
+    private static final String TIME_BUDGET_WARN = "warn";
+    /**
+     * Constant value for parameter timeBudgetAction: fail the rule.
+     */
+    private static final String TIME_BUDGET_FAIL = "fail";
+    /**
+     * Constant value: Phase of the rule, validation of the parameters.
+     */
+    private static final String PHASE_VALIDATION = "validation";
+    /**
+     * Constant value: Phase of the rule, filtering of the projects in the build.
+     */
+    private static final String PHASE_FILTERING = "filtering";
+    /**
+     * Constant value: Phase of the rule, indexing of the build and of the dependencies of the current project.
+     */
+    private static final String PHASE_INDEXING = "indexing";
+    /**
+     * Constant value: Phase of the rule, validation and compilation of the patterns.
+     */
+    private static final String PHASE_COMPILATION = "compilation";
+    /**
+     * Constant value: Phase of the rule, matching of the projects with the patterns.
+     */
+    private static final String PHASE_MATCHING = "matching";
+    /**
+     * Constant value: Phase of the rule, comparison of the dependencies.
+     */
+    private static final String PHASE_COMPARISON = "comparison";
+    /**
+     * Constant value: Phase of the rule, generation of the reports.
+     */
+    private static final String PHASE_REPORT = "report";
     /**
      * Inject needed Maven component.
       */
     private final MavenSession mavenSession;
+    /**
+     * Artifact handlers of the build, or null if not known.
+     */
+    private final ArtifactHandlerManager artifactHandlerManager;
     /**
      * Include by project [groupId:]artifactId[:packagingType].
      * Default value: all projects included.
@@ -55,6 +121,30 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
      * Then excludes are excluded from them.
      */
     private List<String> excludes;
+    /**
+     * Include by directory relative to the top level project, e.g. "services/**".
+     */
+    private List<String> includePaths;
+    /**
+     * Exclude by directory relative to the top level project, e.g. "libs/legacy/**".
+     */
+    private List<String> excludePaths;
+    /**
+     * Include by project property, "name=value" or "name" for any value.
+     */
+    private List<String> includeProperties;
+    /**
+     * Exclude by project property, "name=value" or "name" for any value.
+     */
+    private List<String> excludeProperties;
+    /**
+     * Include all projects below an aggregator or parent project [groupId:]artifactId[:packagingType].
+     */
+    private List<String> includeSubtrees;
+    /**
+     * Exclude all projects below an aggregator or parent project [groupId:]artifactId[:packagingType].
+     */
+    private List<String> excludeSubtrees;
     /**
      * Error if unknown project in includes/excludes.
      * If a wildcard (*) is used in the name, this parameter has no effect.
@@ -66,16 +156,111 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
      */
     @SuppressWarnings("unused") // Not actually unused. Set via Plexus/Sisu Container.
     private String includeRootProject;
+    /**
+     * Named selection sets, each with its own includes, excludes and expected scope and type.
+     * Cannot be used together with includes and excludes.
+     */
+    private List<SelectionSet> selectionSets;
+    /**
+     * Where to look for the dependencies: 'dependencies' or 'dependencyManagement'.
+     */
+    private String target;
+    /**
+     * Include dependency management entries imported from other POMs (scope import).
+     * Only used when target is 'dependencyManagement'.
+     */
+    private String includeImportedDependencyManagement;
+    /**
+     * Keep compiled patterns and the index of the build in a cache
+     * which survives between builds in Maven Daemon (mvnd).
+     */
+    private String persistentCache;
+    /**
+     * Export the coverage matrix of the build: 'none', 'csv' or 'dot'.
+     */
+    private String coverageMatrix;
+    /**
+     * Check against all projects found from the modules of the top level project,
+     * not only the projects in the current build (e.g. with -pl).
+     */
+    private String fullReactor;
+    /**
+     * Time budget of one execution in milliseconds. Zero or not set means no budget.
+     */
+    private String timeBudget;
+    /**
+     * What to do when the time budget is exceeded: 'warn' or 'fail'.
+     */
+    private String timeBudgetAction;
+    /**
+     * Write a table which explains the decision for every project to the target directory.
+     */
+    private String explain;
+    /**
+     * Stop at the first violation.
+     */
+    private String failFast;
+    /**
+     * Stop after this many violations. Zero or not set means no limit.
+     */
+    private String maxViolations;
+    /**
+     * Fail if a project in the build is declared as a dependency more than once, or with conflicting versions.
+     */
+    private String errorIfDuplicateDependency;
+    /**
+     * Generate the dependencies on the selected projects to the target directory: 'none', 'dependencies' or 'pom'.
+     */
+    private String generate;
+    /**
+     * Warn about patterns which are duplicates or covered by a broader pattern in the same list.
+     */
+    private String warnRedundantPatterns;
+    /**
+     * Maximum number of violations, zero for no limit. Prepared in validateAndPrepareParameters.
+     */
+    private int violationLimit;
+    /**
+     * Time budget in milliseconds. Prepared in validateAndPrepareParameters.
+     */
+    private long timeBudgetMillis;
+    /**
+     * Time of the phases of the current execution.
+     */
+    private ExecutionTimer timer = new ExecutionTimer();
+    /**
+     * Number of violations of the current execution.
+     */
+    private int violationCount;
+    /**
+     * Index of the projects in the build. Prepared in validateAndPrepareParameters.
+     */
+    private ReactorIndex reactorIndex;
+    /**
+     * Selection sets with compiled patterns. Prepared in validateAndPrepareParameters.
+     */
+    private List<PreparedSelectionSet> preparedSelectionSets = new ArrayList<>();
 
     /**
-     * Constructor.
+     * Constructor. Packagings are compared with dependency types as they are.
      *
      * @param session            Initialized MavenSession object.
      */
+    public DependOnAllProjects(MavenSession session) {
+        this(session, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param session                Initialized MavenSession object.
+     * @param artifactHandlerManager Artifact handlers, used to resolve packagings to dependency types.
+     */
     @Inject
     @SuppressFBWarnings
-    public DependOnAllProjects(MavenSession session) {
+    public DependOnAllProjects(MavenSession session, @Nullable ArtifactHandlerManager artifactHandlerManager) {
         this.mavenSession = Objects.requireNonNull(session);
+        this.artifactHandlerManager = artifactHandlerManager;
     }
 
     /**
@@ -104,6 +289,78 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
         }
     }
 
+    /**
+     * Set includePaths.
+     * @param includePaths the includePaths
+     */
+    public void setIncludePaths(@Nullable List<String> includePaths) {
+        if (includePaths == null) {
+            this.includePaths = new ArrayList<>();
+        } else {
+            this.includePaths = new ArrayList<>(includePaths);
+        }
+    }
+
+    /**
+     * Set excludePaths.
+     * @param excludePaths the excludePaths
+     */
+    public void setExcludePaths(@Nullable List<String> excludePaths) {
+        if (excludePaths == null) {
+            this.excludePaths = new ArrayList<>();
+        } else {
+            this.excludePaths = new ArrayList<>(excludePaths);
+        }
+    }
+
+    /**
+     * Set includeProperties.
+     * @param includeProperties the includeProperties
+     */
+    public void setIncludeProperties(@Nullable List<String> includeProperties) {
+        if (includeProperties == null) {
+            this.includeProperties = new ArrayList<>();
+        } else {
+            this.includeProperties = new ArrayList<>(includeProperties);
+        }
+    }
+
+    /**
+     * Set excludeProperties.
+     * @param excludeProperties the excludeProperties
+     */
+    public void setExcludeProperties(@Nullable List<String> excludeProperties) {
+        if (excludeProperties == null) {
+            this.excludeProperties = new ArrayList<>();
+        } else {
+            this.excludeProperties = new ArrayList<>(excludeProperties);
+        }
+    }
+
+    /**
+     * Set includeSubtrees.
+     * @param includeSubtrees the includeSubtrees
+     */
+    public void setIncludeSubtrees(@Nullable List<String> includeSubtrees) {
+        if (includeSubtrees == null) {
+            this.includeSubtrees = new ArrayList<>();
+        } else {
+            this.includeSubtrees = new ArrayList<>(includeSubtrees);
+        }
+    }
+
+    /**
+     * Set excludeSubtrees.
+     * @param excludeSubtrees the excludeSubtrees
+     */
+    public void setExcludeSubtrees(@Nullable List<String> excludeSubtrees) {
+        if (excludeSubtrees == null) {
+            this.excludeSubtrees = new ArrayList<>();
+        } else {
+            this.excludeSubtrees = new ArrayList<>(excludeSubtrees);
+        }
+    }
+
     /**
      * Set errorIfUnknownProject.
      * @param errorIfUnknownProject the errorIfUnknownProject
@@ -130,6 +387,174 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
         }
     }
 
+    /**
+     * Set selectionSets.
+     * @param selectionSets the selection sets
+     */
+    public void setSelectionSets(@Nullable List<SelectionSet> selectionSets) {
+        if (selectionSets == null) {
+            this.selectionSets = new ArrayList<>();
+        } else {
+            this.selectionSets = new ArrayList<>(selectionSets);
+        }
+    }
+
+    /**
+     * Set target.
+     * @param target the target, 'dependencies' or 'dependencyManagement'
+     */
+    public void setTarget(String target) {
+        if (target != null) {
+            this.target = target;
+        } else {
+            this.target = TARGET_DEPENDENCIES;
+        }
+    }
+
+    /**
+     * Set includeImportedDependencyManagement.
+     * @param includeImportedDependencyManagement the includeImportedDependencyManagement
+     */
+    public void setIncludeImportedDependencyManagement(String includeImportedDependencyManagement) {
+        if (includeImportedDependencyManagement != null) {
+            this.includeImportedDependencyManagement = includeImportedDependencyManagement;
+        } else {
+            this.includeImportedDependencyManagement = FALSE;
+        }
+    }
+
+    /**
+     * Set persistentCache.
+     * @param persistentCache the persistentCache
+     */
+    public void setPersistentCache(String persistentCache) {
+        if (persistentCache != null) {
+            this.persistentCache = persistentCache;
+        } else {
+            this.persistentCache = FALSE;
+        }
+    }
+
+    /**
+     * Set coverageMatrix.
+     * @param coverageMatrix the format, 'none', 'csv' or 'dot'
+     */
+    public void setCoverageMatrix(String coverageMatrix) {
+        if (coverageMatrix != null) {
+            this.coverageMatrix = coverageMatrix;
+        } else {
+            this.coverageMatrix = CoverageMatrix.FORMAT_NONE;
+        }
+    }
+
+    /**
+     * Set timeBudget.
+     * @param timeBudget the time budget in milliseconds
+     */
+    public void setTimeBudget(String timeBudget) {
+        if (timeBudget != null) {
+            this.timeBudget = timeBudget;
+        } else {
+            this.timeBudget = "0";
+        }
+    }
+
+    /**
+     * Set timeBudgetAction.
+     * @param timeBudgetAction 'warn' or 'fail'
+     */
+    public void setTimeBudgetAction(String timeBudgetAction) {
+        if (timeBudgetAction != null) {
+            this.timeBudgetAction = timeBudgetAction;
+        } else {
+            this.timeBudgetAction = TIME_BUDGET_WARN;
+        }
+    }
+
+    /**
+     * Set fullReactor.
+     * @param fullReactor the fullReactor
+     */
+    public void setFullReactor(String fullReactor) {
+        if (fullReactor != null) {
+            this.fullReactor = fullReactor;
+        } else {
+            this.fullReactor = FALSE;
+        }
+    }
+
+    /**
+     * Set explain.
+     * @param explain the explain
+     */
+    public void setExplain(String explain) {
+        if (explain != null) {
+            this.explain = explain;
+        } else {
+            this.explain = FALSE;
+        }
+    }
+
+    /**
+     * Set failFast.
+     * @param failFast the failFast
+     */
+    public void setFailFast(String failFast) {
+        if (failFast != null) {
+            this.failFast = failFast;
+        } else {
+            this.failFast = FALSE;
+        }
+    }
+
+    /**
+     * Set maxViolations.
+     * @param maxViolations the maximum number of violations
+     */
+    public void setMaxViolations(String maxViolations) {
+        if (maxViolations != null) {
+            this.maxViolations = maxViolations;
+        } else {
+            this.maxViolations = "0";
+        }
+    }
+
+    /**
+     * Set errorIfDuplicateDependency.
+     * @param errorIfDuplicateDependency the errorIfDuplicateDependency
+     */
+    public void setErrorIfDuplicateDependency(String errorIfDuplicateDependency) {
+        if (errorIfDuplicateDependency != null) {
+            this.errorIfDuplicateDependency = errorIfDuplicateDependency;
+        } else {
+            this.errorIfDuplicateDependency = FALSE;
+        }
+    }
+
+    /**
+     * Set generate.
+     * @param generate the format, 'none', 'dependencies' or 'pom'
+     */
+    public void setGenerate(String generate) {
+        if (generate != null) {
+            this.generate = generate;
+        } else {
+            this.generate = GeneratedDependencies.FORMAT_NONE;
+        }
+    }
+
+    /**
+     * Set warnRedundantPatterns.
+     * @param warnRedundantPatterns the warnRedundantPatterns
+     */
+    public void setWarnRedundantPatterns(String warnRedundantPatterns) {
+        if (warnRedundantPatterns != null) {
+            this.warnRedundantPatterns = warnRedundantPatterns;
+        } else {
+            this.warnRedundantPatterns = FALSE;
+        }
+    }
+
     /**
      * Format Dependency object to XML snippet.
      * User can simply copy-paste this to the project.
@@ -150,6 +575,10 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
             sb.append(indent).append(String.format("<type>%s</type>", dependency.getType()))
                 .append(newLine);
         }
+        if (dependency.getScope() != null && !"compile".equals(dependency.getScope())) {
+            sb.append(indent).append(String.format("<scope>%s</scope>", dependency.getScope()))
+                .append(newLine);
+        }
         sb.append("</dependency>");
         return sb.toString();
     }
@@ -209,12 +638,25 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
      */
     public static boolean dependenciesContains(Iterable<Dependency> projects,
                                                MavenProject project) {
-        for (Dependency p : projects) {
-            if (dependenciesAreEquals(p, projectToDependency(project))) {
-                return true;
+        return findDependency(projects, projectToDependency(project)) != null;
+    }
+
+    /**
+     * Find the Dependency object which equals the expected one.
+     * GroupId, ArtifactId, Version and Type must match. Scope is not compared.
+     *
+     * @param dependencies Iterable of Dependency objects
+     * @param expected     the expected Dependency object
+     * @return the matching Dependency object, or null if not found
+     */
+    @Nullable
+    public static Dependency findDependency(Iterable<Dependency> dependencies, Dependency expected) {
+        for (Dependency d : dependencies) {
+            if (dependenciesAreEquals(d, expected)) {
+                return d;
             }
         }
-        return false;
+        return null;
     }
 
     /**
@@ -300,99 +742,129 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
     /**
      * Validate parameters provided via properties
      * either on the command line or using configuration element in pom.
+     * All parameters and all their entries are checked, and every problem is reported in one exception.
      *
-     * @throws EnforcerRuleException if parameter validation fails.
+     * @throws EnforcerRuleException if parameter validation fails, with one line per problem.
      */
     void validateAndPrepareParameters() throws EnforcerRuleException {
         getLog().debug("includes=" + includes);
         getLog().debug("excludes=" + excludes);
+        getLog().debug("includePaths=" + includePaths);
+        getLog().debug("excludePaths=" + excludePaths);
+        getLog().debug("includeProperties=" + includeProperties);
+        getLog().debug("excludeProperties=" + excludeProperties);
+        getLog().debug("includeSubtrees=" + includeSubtrees);
+        getLog().debug("excludeSubtrees=" + excludeSubtrees);
         getLog().debug("errorIfUnknownProject=" + errorIfUnknownProject);
         getLog().debug("includeRootProject=" + includeRootProject);
+        getLog().debug("selectionSets=" + selectionSets);
+        getLog().debug("target=" + target);
+        getLog().debug("includeImportedDependencyManagement=" + includeImportedDependencyManagement);
+        getLog().debug("persistentCache=" + persistentCache);
+        getLog().debug("coverageMatrix=" + coverageMatrix);
+        getLog().debug("fullReactor=" + fullReactor);
+        getLog().debug("timeBudget=" + timeBudget);
+        getLog().debug("timeBudgetAction=" + timeBudgetAction);
+        getLog().debug("explain=" + explain);
+        getLog().debug("failFast=" + failFast);
+        getLog().debug("maxViolations=" + maxViolations);
+        getLog().debug("errorIfDuplicateDependency=" + errorIfDuplicateDependency);
+        getLog().debug("generate=" + generate);
+        getLog().debug("warnRedundantPatterns=" + warnRedundantPatterns);
 
-        final List<MavenProject> reactorProjects =
-            mavenSession.getProjectDependencyGraph().getSortedProjects();
-        getLog().debug("reactorProjects=" + reactorProjects);
+        // Every problem is collected, so all of them are reported at once.
+        final List<String> problems = new ArrayList<>();
+        errorIfUnknownProject = validateBoolean("errorIfUnknownProject", errorIfUnknownProject, problems);
+        includeRootProject = validateBoolean("includeRootProject", includeRootProject, problems);
+        includeImportedDependencyManagement =
+            validateBoolean("includeImportedDependencyManagement", includeImportedDependencyManagement, problems);
+        persistentCache = validateBoolean("persistentCache", persistentCache, problems);
+        fullReactor = validateBoolean("fullReactor", fullReactor, problems);
+        explain = validateBoolean("explain", explain, problems);
+        failFast = validateBoolean("failFast", failFast, problems);
+        errorIfDuplicateDependency = validateBoolean("errorIfDuplicateDependency", errorIfDuplicateDependency, problems);
+        warnRedundantPatterns = validateBoolean("warnRedundantPatterns", warnRedundantPatterns, problems);
+        validateChoices(problems);
+        validateNumbers(problems);
+
+        timer.lap(PHASE_VALIDATION);
+        reactorIndex = buildReactorIndex();
+        timer.lap(PHASE_INDEXING);
+        if (getLog().isDebugEnabled()) {
+            getLog().debug("reactorProjects=" + reactorIndex.getProjects());
+        }
+
+        final Function<String, ProjectSelector> compile =
+            TRUE.equals(persistentCache) ? RuleCache::selector : ProjectSelector::new;
+        // Selectors compiled before the build started are only read.
+        final Map<String, ProjectSelector> prebuilt = RuleCache.prebuiltSelectors(mavenSession);
+        final Function<String, ProjectSelector> compiler = pattern -> {
+            final ProjectSelector selector = prebuilt.get(pattern);
+            return selector != null ? selector : compile.apply(pattern);
+        };
 
         /* There is a bug in Maven/Sisu/Plexus container, which sets includes to a list with one empty string,
          * if the parameter is not set. So we need to check for this case and convert it to an empty list.
          * Then we can add the default value of "*".
          */
-        if ((includes == null) || (includes.size() == 1 && "".equals(includes.get(0)))) {
-            includes = new ArrayList<>();
-        }
-        if (excludes == null) {
-            excludes = new ArrayList<>();
-        } else if (excludes.size() == 1 && "".equals(excludes.get(0))) {
-            excludes = new ArrayList<>();
-        }
-        getLog().debug(String.format("Parameter includes.size: %d", includes.size()));
-        for (String a : includes) {
-            getLog().debug(String.format("Check include '%s'", a));
-            if (a == null) {
-                throw new EnforcerRuleException(
-                    "Failure in parameter 'includes'. String is null");
-            }
-            if (a.matches("^[\t\n ]+$")) {
-                throw new EnforcerRuleException(
-                    String.format("Failure in parameter 'includes'. String contains only whitespace: '%s'", a));
-            }
-            List<String> ids = Arrays.asList(a.split(":"));
-            if (ids.size() > MAX_NUM_PARTS_IN_DEPENDENCY_DECLARATION) {
-                throw new EnforcerRuleException(
-                    "Failure in parameter 'includes'. String is invalid");
-            }
-            /* If there is a wildcard, we cannot check if the project exists in the build.
-             * So we skip the check in this case.
-             */
-            if (TRUE.equals(errorIfUnknownProject) && !a.contains("*")
-                && !projectsContains(reactorProjects, a)) {
-                throw new EnforcerRuleException(String.format(
-                    "Failure in parameter 'includes'. Project '%s' not found in build", a));
-            }
+        includes = withoutEmptyDefault(includes);
+        excludes = withoutEmptyDefault(excludes);
+        includePaths = withoutEmptyDefault(includePaths);
+        excludePaths = withoutEmptyDefault(excludePaths);
+        includeProperties = withoutEmptyDefault(includeProperties);
+        excludeProperties = withoutEmptyDefault(excludeProperties);
+        includeSubtrees = withoutEmptyDefault(includeSubtrees);
+        excludeSubtrees = withoutEmptyDefault(excludeSubtrees);
+        if (selectionSets == null) {
+            selectionSets = new ArrayList<>();
         }
-        if (includes.isEmpty()) {
-            includes.add("*");
+        if (!selectionSets.isEmpty() && (!includes.isEmpty() || !excludes.isEmpty()
+            || !includePaths.isEmpty() || !excludePaths.isEmpty()
+            || !includeProperties.isEmpty() || !excludeProperties.isEmpty()
+            || !includeSubtrees.isEmpty() || !excludeSubtrees.isEmpty())) {
+            problems.add("Failure in parameter 'selectionSets'. "
+                + "Cannot be used together with parameters 'includes', 'excludes', 'includePaths', 'excludePaths', "
+                + "'includeProperties', 'excludeProperties', 'includeSubtrees' and 'excludeSubtrees'");
         }
 
-        getLog().debug(String.format("Parameter excludes.size: %d", excludes.size()));
-        for (String a : excludes) {
-            getLog().debug(String.format("Check exclude '%s'", a));
-            if (a == null) {
-                throw new EnforcerRuleException(
-                    "Failure in parameter 'excludes'. String is null");
-            }
-            if (a.matches("^[\t\n ]+$")) {
-                throw new EnforcerRuleException(
-                    String.format("Failure in parameter 'excludes'. String contains only whitespace: '%s'", a));
+        preparedSelectionSets = new ArrayList<>();
+        if (selectionSets.isEmpty()) {
+            // Default is all projects, unless projects are included by path, property or subtree.
+            if (includes.isEmpty() && includePaths.isEmpty() && includeProperties.isEmpty()
+                && includeSubtrees.isEmpty()) {
+                includes.add("*");
             }
-            List<String> ids = Arrays.asList(a.split(":"));
-            if (ids.size() > MAX_NUM_PARTS_IN_DEPENDENCY_DECLARATION) {
-                throw new EnforcerRuleException(
-                    "Failure in parameter 'excludes'. String is invalid");
+            final SelectionSet defaultSet = new SelectionSet();
+            defaultSet.setIncludes(includes);
+            defaultSet.setExcludes(excludes);
+            defaultSet.setIncludePaths(includePaths);
+            defaultSet.setExcludePaths(excludePaths);
+            defaultSet.setIncludeProperties(includeProperties);
+            defaultSet.setExcludeProperties(excludeProperties);
+            defaultSet.setIncludeSubtrees(includeSubtrees);
+            defaultSet.setExcludeSubtrees(excludeSubtrees);
+            addIfValid(prepareSelectionSet(null, defaultSet, "", compiler, problems));
+        }
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < selectionSets.size(); i++) {
+            final SelectionSet set = selectionSets.get(i);
+            if (set == null || set.getName() == null || set.getName().trim().isEmpty()) {
+                problems.add(String.format(
+                    "Failure in parameter 'selectionSets'. Selection set #%d has no name", i + 1));
+                continue;
             }
-            /* If there is a wildcard, we cannot check if the project exists in the build.
-             * So we skip the check in this case.
-             */
-            if (TRUE.equals(errorIfUnknownProject) && !a.contains("*")
-                && !projectsContains(reactorProjects, a)) {
-                throw new EnforcerRuleException(String.format(
-                    "Failure in parameter 'excludes'. Project '%s' not found in build", a));
+            final String name = set.getName().trim();
+            if (names.contains(name)) {
+                problems.add(String.format(
+                    "Failure in parameter 'selectionSets'. Selection set name '%s' is not unique", name));
+                continue;
             }
+            names.add(name);
+            addIfValid(prepareSelectionSet(name, set, String.format("selectionSets[%s].", name), compiler, problems));
         }
-
-        if (errorIfUnknownProject == null || errorIfUnknownProject.isEmpty()) {
-            errorIfUnknownProject = FALSE;
-        }
-        if (includeRootProject == null || includeRootProject.isEmpty()) {
-            includeRootProject = FALSE;
-        }
-        if (!TRUE.equals(errorIfUnknownProject) && !FALSE.equals(errorIfUnknownProject)) {
-            throw new EnforcerRuleException(
-                String.format("Failure in parameter 'errorIfUnknownProject'. Must be 'true' or 'false': '%s'", errorIfUnknownProject));
-        }
-        if (!TRUE.equals(includeRootProject) && !FALSE.equals(includeRootProject)) {
-            throw new EnforcerRuleException(
-                String.format("Failure in parameter 'includeRootProject'. Must be 'true' or 'false': '%s'", includeRootProject));
+        timer.lap(PHASE_COMPILATION);
+        if (!problems.isEmpty()) {
+            throw new EnforcerRuleException(String.join("\n", problems));
         }
 
         getLog().debug("includes(resolved)=" + includes);
@@ -402,71 +874,893 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
     }
 
     /**
-     * The rule logic.
-     * Collect all projects in the build and filter according to includes/excludes.
-     * Match the list with the dependencies of the current project.
-     * If the two lists do not match, Raise EnforcerRuleException
+     * Validate the parameters which take one of a fixed set of values. Not set means the default value.
      *
-     * @throws EnforcerRuleException if rule fails.
+     * @param problems Problems found so far, a problem is added for every invalid parameter
      */
-    public void dependOnAllProjects() throws EnforcerRuleException {
-        List<MavenProject> includedProjects = new ArrayList<>();
-        MavenProject currentProject = mavenSession.getCurrentProject();
-        getLog().debug(String.format("Current Project: %s:%s", currentProject.getGroupId(),
+    private void validateChoices(List<String> problems) {
+        if (target == null || target.isEmpty()) {
+            target = TARGET_DEPENDENCIES;
+        }
+        if (!TARGET_DEPENDENCIES.equals(target) && !TARGET_DEPENDENCY_MANAGEMENT.equals(target)) {
+            problems.add(
+                String.format("Failure in parameter 'target'. Must be '%s' or '%s': '%s'",
+                    TARGET_DEPENDENCIES, TARGET_DEPENDENCY_MANAGEMENT, target));
+        }
+        if (coverageMatrix == null || coverageMatrix.isEmpty()) {
+            coverageMatrix = CoverageMatrix.FORMAT_NONE;
+        }
+        if (!CoverageMatrix.FORMAT_NONE.equals(coverageMatrix) && !CoverageMatrix.FORMAT_CSV.equals(coverageMatrix)
+            && !CoverageMatrix.FORMAT_DOT.equals(coverageMatrix)) {
+            problems.add(
+                String.format("Failure in parameter 'coverageMatrix'. Must be 'none', 'csv' or 'dot': '%s'", coverageMatrix));
+        }
+        if (generate == null || generate.isEmpty()) {
+            generate = GeneratedDependencies.FORMAT_NONE;
+        }
+        if (!GeneratedDependencies.FORMAT_NONE.equals(generate)
+            && !GeneratedDependencies.FORMAT_DEPENDENCIES.equals(generate)
+            && !GeneratedDependencies.FORMAT_POM.equals(generate)) {
+            problems.add(String.format(
+                "Failure in parameter 'generate'. Must be 'none', 'dependencies' or 'pom': '%s'", generate));
+        }
+        if (timeBudgetAction == null || timeBudgetAction.isEmpty()) {
+            timeBudgetAction = TIME_BUDGET_WARN;
+        }
+        if (!TIME_BUDGET_WARN.equals(timeBudgetAction) && !TIME_BUDGET_FAIL.equals(timeBudgetAction)) {
+            problems.add(String.format(
+                "Failure in parameter 'timeBudgetAction'. Must be '%s' or '%s': '%s'",
+                TIME_BUDGET_WARN, TIME_BUDGET_FAIL, timeBudgetAction));
+        }
+    }
+
+    /**
+     * Validate the numeric parameters, and derive the number of violations after which the rule stops.
+     *
+     * @param problems Problems found so far, a problem is added for every invalid parameter
+     */
+    private void validateNumbers(List<String> problems) {
+        timeBudgetMillis = 0;
+        if (timeBudget != null && !timeBudget.isEmpty()) {
+            try {
+                timeBudgetMillis = Long.parseLong(timeBudget);
+            } catch (NumberFormatException e) {
+                timeBudgetMillis = -1;
+            }
+            if (timeBudgetMillis < 0) {
+                problems.add(String.format(
+                    "Failure in parameter 'timeBudget'. Must be a number of milliseconds, zero or more: '%s'", timeBudget));
+            }
+        }
+        violationLimit = 0;
+        if (maxViolations != null && !maxViolations.isEmpty()) {
+            try {
+                violationLimit = Integer.parseInt(maxViolations);
+            } catch (NumberFormatException e) {
+                violationLimit = -1;
+            }
+            if (violationLimit < 0) {
+                problems.add(String.format(
+                    "Failure in parameter 'maxViolations'. Must be a number, zero or more: '%s'", maxViolations));
+            }
+        }
+        if (TRUE.equals(failFast)) {
+            violationLimit = 1;
+        }
+    }
+
+    /**
+     * Add a prepared selection set, unless it is invalid.
+     *
+     * @param prepared the prepared set, or null if invalid
+     */
+    private void addIfValid(@Nullable PreparedSelectionSet prepared) {
+        if (prepared != null) {
+            preparedSelectionSets.add(prepared);
+        }
+    }
+
+    /**
+     * Validate a selection set and compile its patterns.
+     *
+     * @param name     Name of the set, or null for the default set
+     * @param set      The set
+     * @param prefix   Prefix of the parameter names in error messages, e.g. "selectionSets[name]."
+     * @param compiler Compiler of the patterns
+     * @param problems Problems found so far, the problems of the set are added
+     * @return the prepared set, or null if the set is invalid
+     */
+    @Nullable
+    private PreparedSelectionSet prepareSelectionSet(@Nullable String name, SelectionSet set, String prefix,
+                                                     Function<String, ProjectSelector> compiler,
+                                                     List<String> problems) {
+        final int problemsBefore = problems.size();
+        final List<String> setIncludes = withoutEmptyDefault(set.getIncludes());
+        final List<String> setExcludes = withoutEmptyDefault(set.getExcludes());
+        final List<String> setIncludeProperties = withoutEmptyDefault(set.getIncludeProperties());
+        final List<String> setExcludeProperties = withoutEmptyDefault(set.getExcludeProperties());
+        final List<String> setIncludeSubtrees = withoutEmptyDefault(set.getIncludeSubtrees());
+        final List<String> setExcludeSubtrees = withoutEmptyDefault(set.getExcludeSubtrees());
+        final List<List<String>> setIncludePaths =
+            parsePaths(prefix + "includePaths", withoutEmptyDefault(set.getIncludePaths()), problems);
+        final List<List<String>> setExcludePaths =
+            parsePaths(prefix + "excludePaths", withoutEmptyDefault(set.getExcludePaths()), problems);
+        validatePatterns(prefix + "includes", setIncludes, problems);
+        if (setIncludes.isEmpty() && setIncludePaths.isEmpty() && setIncludeProperties.isEmpty()
+            && setIncludeSubtrees.isEmpty()) {
+            setIncludes.add("*");
+        }
+        validatePatterns(prefix + "excludes", setExcludes, problems);
+        validatePatterns(prefix + "includeSubtrees", setIncludeSubtrees, problems);
+        validatePatterns(prefix + "excludeSubtrees", setExcludeSubtrees, problems);
+        validateProperties(prefix + "includeProperties", setIncludeProperties, problems);
+        validateProperties(prefix + "excludeProperties", setExcludeProperties, problems);
+        if (set.getScope() != null && !VALID_SCOPES.contains(set.getScope())) {
+            problems.add(String.format(
+                "Failure in parameter '%sscope'. Must be one of %s: '%s'", prefix, VALID_SCOPES, set.getScope()));
+        }
+        if (set.getType() != null && set.getType().trim().isEmpty()) {
+            problems.add(String.format(
+                "Failure in parameter '%stype'. String contains only whitespace", prefix));
+        }
+        if (problems.size() > problemsBefore) {
+            return null;
+        }
+        final PreparedSelectionSet prepared = new PreparedSelectionSet(name, set.getScope(), set.getType());
+        for (String pattern : normalizePatterns(prefix + "includes", setIncludes)) {
+            prepared.includeSelectors.add(compiler.apply(pattern));
+        }
+        for (String pattern : normalizePatterns(prefix + "excludes", setExcludes)) {
+            prepared.excludeSelectors.add(compiler.apply(pattern));
+        }
+        for (String pattern : normalizePatterns(prefix + "includeSubtrees", setIncludeSubtrees)) {
+            prepared.includeSubtrees.add(compiler.apply(pattern));
+        }
+        for (String pattern : normalizePatterns(prefix + "excludeSubtrees", setExcludeSubtrees)) {
+            prepared.excludeSubtrees.add(compiler.apply(pattern));
+        }
+        prepared.includePaths.addAll(setIncludePaths);
+        prepared.excludePaths.addAll(setExcludePaths);
+        prepared.includeProperties.addAll(setIncludeProperties);
+        prepared.excludeProperties.addAll(setExcludeProperties);
+        return prepared;
+    }
+
+    /**
+     * Remove the patterns which are duplicates or covered by a broader pattern in the same list,
+     * so every project is matched against the minimal set of patterns.
+     *
+     * @param parameterName Name of the parameter, used in messages
+     * @param patterns      The patterns, validated
+     * @return the patterns without the redundant ones
+     */
+    private List<String> normalizePatterns(String parameterName, List<String> patterns) {
+        return PatternNormalizer.normalize(patterns, (pattern, coveredBy) -> {
+            final String message = String.format(
+                "Pattern '%s' in parameter '%s' is redundant: '%s' matches every project it matches",
+                pattern, parameterName, coveredBy);
+            if (TRUE.equals(warnRedundantPatterns)) {
+                getLog().warn(message);
+            } else {
+                getLog().debug(message);
+            }
+        });
+    }
+
+    /**
+     * Validate a list of property selectors (includeProperties or excludeProperties).
+     *
+     * @param parameterName Name of the parameter, used in error messages
+     * @param selectors     The selectors, "name=value" or "name"
+     * @param problems      Problems found so far, a problem is added for every invalid selector
+     */
+    private static void validateProperties(String parameterName, List<String> selectors, List<String> problems) {
+        for (String a : selectors) {
+            if (a == null) {
+                problems.add(String.format(
+                    "Failure in parameter '%s'. String is null", parameterName));
+            } else if (ReactorIndex.propertyName(a).isEmpty()) {
+                problems.add(String.format(
+                    "Failure in parameter '%s'. Property name is empty: '%s'", parameterName, a));
+            }
+        }
+    }
+
+    /**
+     * Validate a boolean parameter. Not set means false.
+     *
+     * @param parameterName Name of the parameter, used in error messages
+     * @param value         The value
+     * @param problems      Problems found so far, a problem is added if the value is not 'true' or 'false'
+     * @return the value, 'true' or 'false'; 'false' if invalid
+     */
+    private static String validateBoolean(String parameterName, @Nullable String value, List<String> problems) {
+        if (value == null || value.isEmpty()) {
+            return FALSE;
+        }
+        if (!TRUE.equals(value) && !FALSE.equals(value)) {
+            problems.add(String.format(
+                "Failure in parameter '%s'. Must be 'true' or 'false': '%s'", parameterName, value));
+            return FALSE;
+        }
+        return value;
+    }
+
+    /**
+     * Build the index of the projects in the build.
+     * Either the projects of the current build, or with parameter fullReactor,
+     * all projects found by scanning the modules of the top level project.
+     *
+     * @return the index
+     * @throws EnforcerRuleException if the project tree cannot be scanned.
+     */
+    ReactorIndex buildReactorIndex() throws EnforcerRuleException {
+        final ProjectDependencyGraph graph = mavenSession.getProjectDependencyGraph();
+        final File topLevelBasedir = topLevelBasedir();
+        // Every project of the build which runs the rule uses the same index.
+        final String sessionKey = (TRUE.equals(fullReactor) ? "full@" : "build@") + topLevelBasedir;
+        final ReactorIndex memoized = RuleCache.sessionReactorIndex(graph, sessionKey);
+        if (memoized != null) {
+            return memoized;
+        }
+        final List<MavenProject> sortedProjects = graph.getSortedProjects();
+        final ReactorIndex prebuilt = RuleCache.prebuiltReactorIndex(mavenSession);
+        final ReactorIndex index;
+        if (TRUE.equals(fullReactor)) {
+            index = scanFullReactor(sortedProjects);
+        } else if (prebuilt != null && prebuilt.isIndexOf(sortedProjects)) {
+            index = prebuilt;
+        } else {
+            index = TRUE.equals(persistentCache)
+                ? RuleCache.reactorIndex(sortedProjects, topLevelBasedir)
+                : ReactorIndex.of(sortedProjects, topLevelBasedir);
+        }
+        RuleCache.putSessionReactorIndex(graph, sessionKey, index);
+        return index;
+    }
+
+    /**
+     * Scan all projects from the modules of the top level POM.
+     * Projects which are part of the current build use their coordinates from the build,
+     * because the scanner does not resolve everything a full model build does.
+     * The scanner does not read dependencies, so the index is in the module declaration order,
+     * not in the build order.
+     *
+     * @param sortedProjects the projects of the current build
+     * @return the index, in the module declaration order
+     * @throws EnforcerRuleException if the project tree cannot be scanned.
+     */
+    private ReactorIndex scanFullReactor(List<MavenProject> sortedProjects) throws EnforcerRuleException {
+        File pomFile = mavenSession.getRequest().getPom();
+        if (pomFile == null && mavenSession.getExecutionRootDirectory() != null) {
+            pomFile = new File(mavenSession.getExecutionRootDirectory(), "pom.xml");
+        }
+        if (pomFile == null || !pomFile.isFile()) {
+            pomFile = mavenSession.getTopLevelProject().getFile();
+        }
+        if (pomFile == null) {
+            throw new EnforcerRuleException(
+                "Failure in parameter 'fullReactor'. Cannot find the top level POM file");
+        }
+        final PomScanner.ScannedProject root;
+        try {
+            root = new PomScanner(mavenSession.getUserProperties(), mavenSession.getSystemProperties())
+                .scan(pomFile);
+        } catch (IOException e) {
+            throw new EnforcerRuleException(String.format(
+                "Failure in parameter 'fullReactor'. Cannot scan the project tree: %s", e.getMessage()), e);
+        }
+        final File topLevelBasedir = topLevelBasedir();
+        final Map<String, MavenProject> inBuild = new HashMap<>();
+        for (MavenProject mavenProject : sortedProjects) {
+            inBuild.put(mavenProject.getGroupId() + ':' + mavenProject.getArtifactId(), mavenProject);
+        }
+        final List<ProjectCoordinates> projects = new ArrayList<>();
+        final List<Properties> properties = new ArrayList<>();
+        final List<PomScanner.ScannedProject> scannedProjects = PomScanner.flatten(root);
+        for (PomScanner.ScannedProject scanned : scannedProjects) {
+            final ProjectCoordinates c = scanned.getCoordinates();
+            final MavenProject effective = inBuild.get(c.getGroupId() + ':' + c.getArtifactId());
+            if (effective != null) {
+                projects.add(ProjectCoordinates.of(effective, topLevelBasedir));
+                properties.add(effective.getProperties());
+            } else {
+                projects.add(new ProjectCoordinates(c.getGroupId(), c.getArtifactId(), c.getVersion(),
+                    c.getPackaging(),
+                    ProjectCoordinates.relativePath(scanned.getPomFile().getParentFile(), topLevelBasedir)));
+                properties.add(scanned.getProperties());
+            }
+        }
+        getLog().debug(String.format("Scanned %d projects from '%s'", projects.size(), pomFile));
+        final ReactorIndex index = new ReactorIndex(projects, properties);
+        // One pass over the module hierarchy.
+        final Map<String, Integer> positions = index.positionsByKey();
+        final Map<PomScanner.ScannedProject, Integer> scannedPositions = new IdentityHashMap<>();
+        for (int i = 0; i < scannedProjects.size(); i++) {
+            scannedPositions.put(scannedProjects.get(i), i);
+        }
+        for (int i = 0; i < scannedProjects.size(); i++) {
+            final PomScanner.ScannedProject scanned = scannedProjects.get(i);
+            if (scanned.getParentKey() != null) {
+                index.addChild(positions.get(scanned.getParentKey()), i);
+            }
+            for (PomScanner.ScannedProject module : scanned.getModules()) {
+                index.addChild(i, scannedPositions.get(module));
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Base directory of the top level project. Paths in includePaths and excludePaths are relative to it.
+     *
+     * @return the directory, or null if not known
+     */
+    @Nullable
+    private File topLevelBasedir() {
+        final MavenProject topLevelProject = mavenSession.getTopLevelProject();
+        return topLevelProject == null ? null : topLevelProject.getBasedir();
+    }
+
+    /**
+     * Convert a list parameter which was not set to an empty list.
+     * Maven/Sisu/Plexus container sets an unset list to a list with one empty string.
+     *
+     * @param patterns the list parameter
+     * @return a modifiable list
+     */
+    private static List<String> withoutEmptyDefault(@Nullable List<String> patterns) {
+        if (patterns == null || (patterns.size() == 1 && "".equals(patterns.get(0)))) {
+            return new ArrayList<>();
+        }
+        return patterns;
+    }
+
+    /**
+     * Validate and parse a list of path patterns (includePaths or excludePaths).
+     *
+     * @param parameterName Name of the parameter, used in error messages
+     * @param patterns      The patterns
+     * @return the parsed patterns
+     * @param problems      Problems found so far, a problem is added for every invalid pattern
+     */
+    private static List<List<String>> parsePaths(String parameterName, List<String> patterns,
+                                                 List<String> problems) {
+        final List<List<String>> parsed = new ArrayList<>(patterns.size());
+        for (String a : patterns) {
+            if (a == null) {
+                problems.add(String.format(
+                    "Failure in parameter '%s'. String is null", parameterName));
+                continue;
+            }
+            // A blank path would be the empty path, which silently matches the top level project.
+            if (a.trim().isEmpty()) {
+                problems.add(String.format(
+                    "Failure in parameter '%s'. String contains only whitespace: '%s'", parameterName, a));
+                continue;
+            }
+            try {
+                parsed.add(PathTrie.parse(a.trim()));
+            } catch (IllegalArgumentException e) {
+                problems.add(String.format(
+                    "Failure in parameter '%s'. Invalid path '%s': %s", parameterName, a, e.getMessage()));
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Validate a list of project patterns (includes or excludes).
+     *
+     * @param parameterName   Name of the parameter, used in error messages
+     * @param patterns        The patterns
+     * @param problems        Problems found so far, a problem is added for every invalid pattern
+     */
+    private void validatePatterns(String parameterName, List<String> patterns, List<String> problems) {
+        getLog().debug(String.format("Parameter %s.size: %d", parameterName, patterns.size()));
+        for (String a : patterns) {
+            getLog().debug(String.format("Check %s '%s'", parameterName, a));
+            if (a == null) {
+                problems.add(String.format(
+                    "Failure in parameter '%s'. String is null", parameterName));
+                continue;
+            }
+            if (a.matches("^[\t\n ]+$")) {
+                problems.add(String.format(
+                    "Failure in parameter '%s'. String contains only whitespace: '%s'", parameterName, a));
+                continue;
+            }
+            List<String> ids = Arrays.asList(a.split(":"));
+            if (ids.size() > MAX_NUM_PARTS_IN_DEPENDENCY_DECLARATION) {
+                problems.add(String.format(
+                    "Failure in parameter '%s'. String is invalid: '%s'", parameterName, a));
+                continue;
+            }
+            /* If there is a wildcard, we cannot check if the project exists in the build.
+             * So we skip the check in this case.
+             */
+            if (TRUE.equals(errorIfUnknownProject) && !a.contains("*")
+                && !reactorIndex.contains(a)) {
+                problems.add(String.format(
+                    "Failure in parameter '%s'. Project '%s' not found in build", parameterName, a));
+            }
+        }
+    }
+
+    /**
+     * The rule logic.
+     * Collect all projects in the build and filter according to includes/excludes
+     * or selection sets. All selection sets are evaluated in one pass over the build.
+     * Match the selected projects with the dependencies of the current project.
+     * If the two lists do not match, Raise EnforcerRuleException
+     *
+     * @throws EnforcerRuleException if rule fails.
+     */
+    public void dependOnAllProjects() throws EnforcerRuleException {
+        MavenProject currentProject = mavenSession.getCurrentProject();
+        getLog().debug(String.format("Current Project: %s:%s", currentProject.getGroupId(),
             currentProject.getArtifactId()));
+        // Packagings like 'bundle' or 'maven-plugin' are compared with the dependency types as canonical types.
+        final DependencyTypes types = artifactHandlerManager == null ? DependencyTypes.RAW
+            : RuleCache.sessionDependencyTypes(mavenSession.getProjectDependencyGraph(), artifactHandlerManager);
+        final DependencyIndex dependencies = new DependencyIndex(targetDependencies(currentProject), types);
+        getLog().debug(String.format("Indexed %d dependencies from %s", dependencies.size(), target));
+        timer.lap(PHASE_INDEXING);
+        final List<String> errors = new ArrayList<>();
+        final List<Dependency> missingDependencies = new ArrayList<>();
+        final List<String> missingErrors = new ArrayList<>();
+        final Map<String, String> coverageColumn = new LinkedHashMap<>();
+        final boolean recordCoverage = !CoverageMatrix.FORMAT_NONE.equals(coverageMatrix);
+        final boolean generating = !GeneratedDependencies.FORMAT_NONE.equals(generate);
+        final List<Dependency> generatedDependencies = new ArrayList<>();
+
+        final PhaseEvent filteringEvent = new PhaseEvent(PHASE_FILTERING);
+        filteringEvent.begin();
+        if (reactorIndex == null) {
+            reactorIndex = buildReactorIndex();
+            timer.lap(PHASE_INDEXING);
+        }
+        final List<ProjectCoordinates> projects = reactorIndex.getProjects();
+        final ProjectCoordinates current = ProjectCoordinates.of(currentProject);
+        final ProjectCoordinates topLevel = mavenSession.getTopLevelProject() == null
+            ? null : ProjectCoordinates.of(mavenSession.getTopLevelProject());
+        // Every selection set is evaluated only against its partitions of the build.
+        // With explain, the first matching include and exclude are recorded while selecting.
+        final boolean explaining = TRUE.equals(explain);
+        final List<BitSet> selections = new ArrayList<>(preparedSelectionSets.size());
+        final List<String[]> firstIncludes = new ArrayList<>();
+        final List<String[]> firstExcludes = new ArrayList<>();
+        for (PreparedSelectionSet set : preparedSelectionSets) {
+            if (explaining) {
+                firstIncludes.add(new String[projects.size()]);
+                firstExcludes.add(new String[projects.size()]);
+                selections.add(set.select(reactorIndex, firstIncludes.get(firstIncludes.size() - 1),
+                    firstExcludes.get(firstExcludes.size() - 1)));
+            } else {
+                selections.add(set.select(reactorIndex));
+            }
+        }
+        final ExplainTable explanation = explaining ? new ExplainTable(!selectionSets.isEmpty()) : null;
+        timer.lap(PHASE_MATCHING);
+        commitEvent(filteringEvent, currentProject, 0);
+
+        final PhaseEvent comparisonEvent = new PhaseEvent(PHASE_COMPARISON);
+        comparisonEvent.begin();
 
         getLog().debug("Iterate through all projects in Maven Dependency Graph, i.e. the build.");
-        mavenSession.getProjectDependencyGraph().getSortedProjects().forEach(project -> {
-            String projectId =
-                String.format("%s:%s:%s", project.getGroupId(), project.getArtifactId(),
-                    project.getVersion());
-            getLog().debug("    " + projectId);
-
-            if (isIncluded(project)) {
-                // Filter out current project and optionally root project (if includeRootProject is false)
-                if (projectsAreEquals(project, currentProject) || (!TRUE.equals(this.includeRootProject)
-                    && projectsAreEquals(project, mavenSession.getTopLevelProject()))) {
+        boolean stopped = false;
+        // Per project debug messages are only formatted when needed; this loop runs for every project.
+        final boolean debug = getLog().isDebugEnabled();
+        for (int i = 0; i < projects.size(); i++) {
+            final ProjectCoordinates project = projects.get(i);
+
+            // The first selection set which selects the project decides.
+            PreparedSelectionSet set = selectingSet(selections, i);
+            if (debug) {
+                getLog().debug("    " + project);
+                getLog().debug(String.format("isIncluded(%s)%s: %b", project,
+                    set == null ? "" : set.reportSuffix(), set != null));
+            }
+            if (set == null) {
+                if (recordCoverage) {
+                    coverageColumn.put(project.getGroupId() + ':' + project.getArtifactId(),
+                        CoverageMatrix.NOT_SELECTED);
+                }
+                if (explanation != null) {
+                    explain(explanation, project, i, null, firstIncludes, firstExcludes, CoverageMatrix.NOT_SELECTED);
+                }
+                continue;
+            }
+            // Filter out current project and optionally root project (if includeRootProject is false)
+            if (project.equals(current) || (!TRUE.equals(this.includeRootProject)
+                && project.equals(topLevel))) {
+                if (debug) {
                     getLog().debug("Filter out project: "
                         + String.format("%s:%s", project.getGroupId(), project.getArtifactId()));
-                } else {
-                    includedProjects.add(project);
                 }
+                if (explanation != null) {
+                    explain(explanation, project, i, set, firstIncludes, firstExcludes, ExplainTable.SKIPPED);
+                }
+                continue;
             }
-        });
-        getLog().debug("includedProjects=%s" + includedProjects);
-        List<MavenProject> missingProjects = new ArrayList<>();
-        for (MavenProject project : includedProjects) {
-            List<Dependency> dependencies =
-                currentProject.getDependencies();
-            if (!dependenciesContains(dependencies, project)) {
-                missingProjects.add(project);
-            }
-        }
-        if (!missingProjects.isEmpty()) {
-            List<String> errors = new ArrayList<>(missingProjects.size());
-            for (MavenProject missingProject : missingProjects) {
-                errors.add(String.format("Project '%s:%s' is missing dependency '%s:%s:%s'.",
+            final Dependency expected = set.expectedDependency(project);
+            expected.setType(types.canonical(expected.getType()));
+            if (generating) {
+                generatedDependencies.add(expected);
+            }
+            final Dependency actual = dependencies.find(expected);
+            if (recordCoverage) {
+                coverageColumn.put(project.getGroupId() + ':' + project.getArtifactId(),
+                    actual == null ? CoverageMatrix.MISSING : CoverageMatrix.COVERED);
+            }
+            if (explanation != null) {
+                explain(explanation, project, i, set, firstIncludes, firstExcludes,
+                    actual == null ? CoverageMatrix.MISSING
+                        : set.scope != null && !set.scope.equals(scopeOf(actual))
+                        ? ExplainTable.WRONG_SCOPE : CoverageMatrix.COVERED);
+            }
+            if (actual == null) {
+                final String error = String.format("Project '%s:%s' is missing dependency '%s:%s:%s'.%s",
+                    currentProject.getGroupId(), currentProject.getArtifactId(),
+                    expected.getGroupId(), expected.getArtifactId(), expected.getType(),
+                    set.reportSuffix());
+                errors.add(error);
+                missingErrors.add(error);
+                missingDependencies.add(expected);
+            } else if (set.scope != null && !set.scope.equals(scopeOf(actual))) {
+                errors.add(String.format("Project '%s:%s' has dependency '%s:%s:%s' with scope '%s', expected scope '%s'.%s",
                     currentProject.getGroupId(), currentProject.getArtifactId(),
-                    missingProject.getGroupId(), missingProject.getArtifactId(),
-                    missingProject.getPackaging()));
+                    expected.getGroupId(), expected.getArtifactId(), expected.getType(),
+                    scopeOf(actual), set.scope, set.reportSuffix()));
             }
-            StringBuilder sb = new StringBuilder();
-            sb.append(String.format("Missing definitions from the project '%s:%s':",
-                currentProject.getGroupId(), currentProject.getArtifactId()));
-            sb.append(System.lineSeparator());
-            sb.append("<!--     Created by Maven Enforcer rule dependOnAllProjects     --->");
-            sb.append(System.lineSeparator());
-            for (MavenProject missingProject : missingProjects) {
-                sb.append(formatDependency(projectToDependency(missingProject), INDENT_DEPENDENCY));
-                sb.append(System.lineSeparator());
+            // With failFast or maxViolations, the rest of the build is not checked, unless generating.
+            if (violationLimit > 0 && errors.size() >= violationLimit && !generating) {
+                stopped = i + 1 < projects.size();
+                break;
             }
-            sb.append("<!--     / Created by Maven Enforcer rule dependOnAllProjects     --->");
-            errors.add(sb.toString());
-            throw new EnforcerRuleException(String.join("\n", errors));
+        }
+        checkRepeatedDeclarations(currentProject, dependencies, errors);
+        timer.lap(PHASE_COMPARISON);
+        commitEvent(comparisonEvent, currentProject, errors.size());
+
+        final PhaseEvent reportEvent = new PhaseEvent(PHASE_REPORT);
+        reportEvent.begin();
+        try {
+            writeReports(currentProject, recordCoverage ? coverageColumn : null, explanation,
+                generating ? generatedDependencies : null, errors, missingErrors, missingDependencies);
+            violationCount = errors.size();
+            if (!errors.isEmpty()) {
+                if (stopped) {
+                    errors.add(String.format("Stopped after %d violation(s) (%s), the rest of the build is not checked.",
+                        violationLimit, TRUE.equals(failFast) ? "failFast" : "maxViolations"));
+                }
+                if (!missingDependencies.isEmpty()) {
+                    errors.add(missingDefinitions(currentProject, missingDependencies));
+                }
+                throw new EnforcerRuleException(String.join("\n", errors));
+            }
+        } finally {
+            timer.lap(PHASE_REPORT);
+            commitEvent(reportEvent, currentProject, violationCount);
         }
         getLog().debug("End of iterate");
     }
 
+    /**
+     * Write the files of the execution: the coverage matrix, the explanation and the generated dependencies.
+     * The generated file replaces the hand-maintained list, so when it is written, the missing dependencies
+     * are logged as warnings and removed from the errors. Wrong scopes and repeated declarations are not fixed
+     * by the generated file and stay errors.
+     *
+     * @param currentProject        the current project
+     * @param coverageColumn        status of every project in the build, or null if not recorded
+     * @param explanation           the explanation, or null if not explained
+     * @param generatedDependencies the dependencies on the selected projects, or null if not generated
+     * @param errors                the errors, the missing dependencies are removed from them
+     * @param missingErrors         the errors of the missing dependencies
+     * @param missingDependencies   the missing dependencies, cleared when the generated file replaces them
+     */
+    private void writeReports(MavenProject currentProject, @Nullable Map<String, String> coverageColumn,
+                              @Nullable ExplainTable explanation, @Nullable List<Dependency> generatedDependencies,
+                              List<String> errors, List<String> missingErrors, List<Dependency> missingDependencies) {
+        if (coverageColumn != null) {
+            writeCoverageMatrix(currentProject, coverageColumn);
+        }
+        if (explanation != null) {
+            writeExplanation(currentProject, explanation);
+        }
+        if (generatedDependencies != null) {
+            final File file = writeGeneratedDependencies(currentProject, generatedDependencies);
+            if (file != null) {
+                for (String error : missingErrors) {
+                    getLog().warn(error);
+                }
+                errors.removeAll(missingErrors);
+                missingDependencies.clear();
+                getLog().info(String.format("Dependencies on %d projects generated to %s",
+                    generatedDependencies.size(), file));
+            }
+        }
+    }
+
+    /**
+     * The missing dependencies as a block of dependency definitions to copy into the current project.
+     *
+     * @param currentProject      the current project
+     * @param missingDependencies the missing dependencies
+     * @return the definitions
+     */
+    private static String missingDefinitions(MavenProject currentProject, List<Dependency> missingDependencies) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Missing definitions from the project '%s:%s':",
+            currentProject.getGroupId(), currentProject.getArtifactId()));
+        sb.append(System.lineSeparator());
+        sb.append("<!--     Created by Maven Enforcer rule dependOnAllProjects     --->");
+        sb.append(System.lineSeparator());
+        for (Dependency missingDependency : missingDependencies) {
+            sb.append(formatDependency(missingDependency, INDENT_DEPENDENCY));
+            sb.append(System.lineSeparator());
+        }
+        sb.append("<!--     / Created by Maven Enforcer rule dependOnAllProjects     --->");
+        return sb.toString();
+    }
+
+    /**
+     * Commit a JFR event of a phase of the rule, if it is enabled.
+     *
+     * @param event          the event
+     * @param currentProject the current project
+     * @param violationCount number of violations found so far
+     */
+    private void commitEvent(PhaseEvent event, MavenProject currentProject, int violationCount) {
+        if (event.shouldCommit()) {
+            event.commit(currentProject.getGroupId() + ':' + currentProject.getArtifactId(),
+                reactorIndex == null ? 0 : reactorIndex.size(), patternCount(), violationCount);
+        }
+    }
+
+    /**
+     * Number of patterns and selectors in all selection sets.
+     *
+     * @return the count
+     */
+    private int patternCount() {
+        int patternCount = 0;
+        for (PreparedSelectionSet set : preparedSelectionSets) {
+            patternCount += set.includeSelectors.size() + set.excludeSelectors.size()
+                + set.includePaths.size() + set.excludePaths.size()
+                + set.includeProperties.size() + set.excludeProperties.size()
+                + set.includeSubtrees.size() + set.excludeSubtrees.size();
+        }
+        return patternCount;
+    }
+
+    /**
+     * Report projects of the build which are declared as a dependency more than once:
+     * duplicates with the same version, and conflicts with different versions.
+     * Warnings, or errors with parameter errorIfDuplicateDependency.
+     *
+     * @param currentProject the current project
+     * @param dependencies   the dependencies of the current project
+     * @param errors         the errors, added to
+     */
+    private void checkRepeatedDeclarations(MavenProject currentProject, DependencyIndex dependencies,
+                                           List<String> errors) {
+        final Map<String, List<Dependency>> repeated = dependencies.repeatedDeclarations();
+        if (repeated.isEmpty()) {
+            return;
+        }
+        final Map<String, Integer> reactorProjects = reactorIndex.positionsByKey();
+        final List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, List<Dependency>> e : repeated.entrySet()) {
+            final Dependency first = e.getValue().get(0);
+            if (!reactorProjects.containsKey(first.getGroupId() + ':' + first.getArtifactId())) {
+                continue;
+            }
+            final Map<String, List<String>> declarationsByVersion = new LinkedHashMap<>();
+            for (Dependency d : e.getValue()) {
+                declarationsByVersion.computeIfAbsent(String.valueOf(d.getVersion()), k -> new ArrayList<>())
+                    .add(String.format("%s (%s)", d.getType(), scopeOf(d)));
+            }
+            for (Map.Entry<String, List<String>> v : declarationsByVersion.entrySet()) {
+                if (v.getValue().size() > 1) {
+                    problems.add(String.format("Project '%s:%s' declares dependency '%s' version '%s' %d times: %s.",
+                        currentProject.getGroupId(), currentProject.getArtifactId(), e.getKey(), v.getKey(),
+                        v.getValue().size(), String.join(", ", v.getValue())));
+                }
+            }
+            if (declarationsByVersion.size() > 1) {
+                problems.add(String.format("Project '%s:%s' declares dependency '%s' with conflicting versions: %s.",
+                    currentProject.getGroupId(), currentProject.getArtifactId(), e.getKey(),
+                    String.join(", ", declarationsByVersion.keySet())));
+            }
+        }
+        for (String problem : problems) {
+            if (TRUE.equals(errorIfDuplicateDependency)) {
+                errors.add(problem);
+            } else {
+                getLog().warn(problem);
+            }
+        }
+    }
+
+    /**
+     * Write the generated dependencies to the target directory of the current project.
+     *
+     * @param currentProject the current project
+     * @param dependencies   the dependencies on the selected projects, in the build order
+     * @return the file, or null if it cannot be written
+     */
+    @Nullable
+    private File writeGeneratedDependencies(MavenProject currentProject, List<Dependency> dependencies) {
+        final File directory = buildDirectory(currentProject);
+        if (directory == null) {
+            getLog().warn("Cannot generate dependencies: Current project has no base directory");
+            return null;
+        }
+        final File file = GeneratedDependencies.file(directory, generate);
+        try {
+            GeneratedDependencies.write(file, generate, ProjectCoordinates.of(currentProject), dependencies);
+            return file;
+        } catch (IOException e) {
+            getLog().warn(String.format("Cannot generate dependencies to '%s': %s", file, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Add the row of a project to the explanation.
+     * If no selection set selected the project, the first set which included it is shown.
+     *
+     * @param explanation   the explanation
+     * @param project       the project
+     * @param position      position of the project in the build order
+     * @param set           the selection set which selected the project, or null if none
+     * @param firstIncludes the first matching include of every project, for every selection set
+     * @param firstExcludes the first matching exclude of every project, for every selection set
+     * @param result        the result
+     */
+    private void explain(ExplainTable explanation, ProjectCoordinates project, int position,
+                         @Nullable PreparedSelectionSet set, List<String[]> firstIncludes,
+                         List<String[]> firstExcludes, String result) {
+        int s = set == null ? -1 : preparedSelectionSets.indexOf(set);
+        for (int k = 0; s < 0 && k < firstIncludes.size(); k++) {
+            if (firstIncludes.get(k)[position] != null) {
+                s = k;
+            }
+        }
+        if (s < 0) {
+            explanation.add(project, null, null, null, result);
+        } else {
+            explanation.add(project, preparedSelectionSets.get(s).name,
+                firstIncludes.get(s)[position], firstExcludes.get(s)[position], result);
+        }
+    }
+
+    /**
+     * Write the explanation to the target directory of the current project.
+     * Failure to write the file is not a rule failure.
+     *
+     * @param currentProject the current project
+     * @param explanation    the explanation
+     */
+    private void writeExplanation(MavenProject currentProject, ExplainTable explanation) {
+        final File directory = buildDirectory(currentProject);
+        if (directory == null) {
+            getLog().warn("Cannot write explanation: Current project has no base directory");
+            return;
+        }
+        try {
+            getLog().info("Explanation written to " + explanation.write(directory));
+        } catch (IOException e) {
+            getLog().warn(String.format("Cannot write explanation to '%s': %s",
+                new File(directory, ExplainTable.FILE_NAME), e.getMessage()));
+        }
+    }
+
+    /**
+     * Record the coverage of the current project in the coverage matrix of the build.
+     * Failure to write the file is not a rule failure.
+     *
+     * @param currentProject the current project, i.e. the aggregator
+     * @param column         status of every project in the build
+     */
+    private void writeCoverageMatrix(MavenProject currentProject, Map<String, String> column) {
+        final MavenProject topLevelProject = mavenSession.getTopLevelProject();
+        final File directory = buildDirectory(topLevelProject);
+        if (directory == null) {
+            getLog().warn("Cannot write coverage matrix: Top level project has no base directory");
+            return;
+        }
+        final File file = CoverageMatrix.file(directory, coverageMatrix);
+        final String buildId = String.format("%s@%s", topLevelProject.getBasedir(),
+            mavenSession.getRequest().getStartTime() == null ? "" : mavenSession.getRequest().getStartTime().getTime());
+        try {
+            CoverageMatrix.record(file, coverageMatrix, buildId,
+                currentProject.getGroupId() + ':' + currentProject.getArtifactId(), column);
+            getLog().debug("Coverage matrix written to " + file);
+        } catch (IOException e) {
+            getLog().warn(String.format("Cannot write coverage matrix to '%s': %s", file, e.getMessage()));
+        }
+    }
+
+    /**
+     * The build (target) directory of a project.
+     *
+     * @param mavenProject the project
+     * @return the directory, or null if the project has no base directory
+     */
+    @Nullable
+    static File buildDirectory(MavenProject mavenProject) {
+        if (mavenProject.getBuild() != null && mavenProject.getBuild().getDirectory() != null) {
+            return new File(mavenProject.getBuild().getDirectory());
+        }
+        if (mavenProject.getBasedir() == null) {
+            return null;
+        }
+        return new File(mavenProject.getBasedir(), "target");
+    }
+
+    /**
+     * The dependencies of the current project which are checked, according to parameter target.
+     *
+     * @param currentProject the current project
+     * @return the dependencies or the dependency management entries
+     */
+    List<Dependency> targetDependencies(MavenProject currentProject) {
+        if (!TARGET_DEPENDENCY_MANAGEMENT.equals(target)) {
+            return currentProject.getDependencies();
+        }
+        if (currentProject.getDependencyManagement() == null) {
+            return new ArrayList<>();
+        }
+        final List<Dependency> managed = currentProject.getDependencyManagement().getDependencies();
+        if (TRUE.equals(includeImportedDependencyManagement)) {
+            return managed;
+        }
+        // Entries declared in this project or inherited from its parents are not imported.
+        final List<String> declaringModelIds = new ArrayList<>();
+        for (MavenProject p = currentProject; p != null; p = p.getParent()) {
+            declaringModelIds.add(String.format("%s:%s:%s", p.getGroupId(), p.getArtifactId(), p.getVersion()));
+        }
+        final List<Dependency> declared = new ArrayList<>(managed.size());
+        for (Dependency d : managed) {
+            final InputLocation location = d.getLocation("");
+            if (location == null || location.getSource() == null
+                || declaringModelIds.contains(location.getSource().getModelId())) {
+                declared.add(d);
+            }
+        }
+        return declared;
+    }
+
+    /**
+     * Find the first selection set which selects the project.
+     *
+     * @param selections the selected positions of each selection set
+     * @param position   position of the project in the build order
+     * @return the selection set or null if no set selects the project
+     */
+    @Nullable
+    private PreparedSelectionSet selectingSet(List<BitSet> selections, int position) {
+        for (int s = 0; s < selections.size(); s++) {
+            if (selections.get(s).get(position)) {
+                return preparedSelectionSets.get(s);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Scope of the dependency. Maven default scope is compile.
+     *
+     * @param dependency Dependency object
+     * @return the scope
+     */
+    private static String scopeOf(Dependency dependency) {
+        return dependency.getScope() == null ? "compile" : dependency.getScope();
+    }
+
     /**
      * The main entry point for rule.
      *
@@ -481,9 +1775,52 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
         getLog().debug(String.format("Top Level Project: %s:%s", topLevelProject.getGroupId(),
             topLevelProject.getArtifactId()));
 
-        validateAndPrepareParameters();
+        timer = new ExecutionTimer();
+        violationCount = 0;
+        EnforcerRuleException failure = null;
+        try {
+            final PhaseEvent validationEvent = new PhaseEvent(PHASE_VALIDATION);
+            validationEvent.begin();
+            try {
+                validateAndPrepareParameters();
+            } finally {
+                commitEvent(validationEvent, currentProject, 0);
+            }
 
-        dependOnAllProjects();
+            dependOnAllProjects();
+        } catch (EnforcerRuleException e) {
+            failure = e;
+        }
+        getLog().debug("Time: " + timer.breakdown());
+        BuildSummary.record(mavenSession, currentProject.getGroupId() + ':' + currentProject.getArtifactId(),
+            timer.elapsedNanos(), reactorIndex == null ? 0 : reactorIndex.size(), patternCount(), violationCount);
+        checkTimeBudget(currentProject, failure == null);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Check if the execution took longer than the time budget.
+     * If so, log where the time went, or fail if configured.
+     *
+     * @param currentProject the current project
+     * @param canFail        false if the rule already fails, then only log
+     * @throws EnforcerRuleException if the budget is exceeded and timeBudgetAction is 'fail'.
+     */
+    private void checkTimeBudget(MavenProject currentProject, boolean canFail) throws EnforcerRuleException {
+        final long elapsed = timer.elapsedMillis();
+        if (timeBudgetMillis <= 0 || elapsed <= timeBudgetMillis) {
+            return;
+        }
+        final String message = String.format(
+            "Rule dependOnAllProjects in project '%s:%s' took %d ms, over the time budget of %d ms: %s",
+            currentProject.getGroupId(), currentProject.getArtifactId(), elapsed, timeBudgetMillis,
+            timer.breakdown());
+        if (canFail && TIME_BUDGET_FAIL.equals(timeBudgetAction)) {
+            throw new EnforcerRuleException(message);
+        }
+        getLog().warn(message);
     }
 
     /**
@@ -513,4 +1850,141 @@ public class DependOnAllProjects extends AbstractEnforcerRule {
         return r;
     }
 
+    /**
+     * Selection set with compiled patterns.
+     * The default set (includes and excludes of the rule) has no name.
+     */
+    private static final class PreparedSelectionSet {
+        /** Name of the set, or null for the default set. */
+        private final String name;
+        /** Compiled include patterns. */
+        private final List<ProjectSelector> includeSelectors = new ArrayList<>();
+        /** Compiled exclude patterns. */
+        private final List<ProjectSelector> excludeSelectors = new ArrayList<>();
+        /** Parsed include path patterns. */
+        private final List<List<String>> includePaths = new ArrayList<>();
+        /** Parsed exclude path patterns. */
+        private final List<List<String>> excludePaths = new ArrayList<>();
+        /** Compiled patterns of the roots of included subtrees. */
+        private final List<ProjectSelector> includeSubtrees = new ArrayList<>();
+        /** Compiled patterns of the roots of excluded subtrees. */
+        private final List<ProjectSelector> excludeSubtrees = new ArrayList<>();
+        /** Include property selectors, "name=value" or "name". */
+        private final List<String> includeProperties = new ArrayList<>();
+        /** Exclude property selectors, "name=value" or "name". */
+        private final List<String> excludeProperties = new ArrayList<>();
+        /** Expected scope, or null for any scope. */
+        private final String scope;
+        /** Expected type, or null for the packaging of the project. */
+        private final String type;
+
+        PreparedSelectionSet(@Nullable String name, @Nullable String scope, @Nullable String type) {
+            this.name = name;
+            this.scope = scope;
+            this.type = type == null ? null : type.trim();
+        }
+
+        /**
+         * Projects selected by the set: matching any include, include path, include property or include subtree,
+         * and no exclude, exclude path, exclude property or exclude subtree.
+         * Paths, properties and subtrees are looked up from the index and combined as sets.
+         *
+         * @param index the index of the build
+         * @return the positions of the selected projects in the index
+         */
+        BitSet select(ReactorIndex index) {
+            final BitSet selected = index.matchAny(includeSelectors);
+            if (!includePaths.isEmpty()) {
+                selected.or(index.matchPaths(includePaths));
+            }
+            if (!includeProperties.isEmpty()) {
+                selected.or(index.matchProperties(includeProperties));
+            }
+            if (!includeSubtrees.isEmpty()) {
+                selected.or(index.matchSubtrees(includeSubtrees));
+            }
+            index.clearMatching(selected, excludeSelectors);
+            if (!excludePaths.isEmpty()) {
+                selected.andNot(index.matchPaths(excludePaths));
+            }
+            if (!excludeProperties.isEmpty()) {
+                selected.andNot(index.matchProperties(excludeProperties));
+            }
+            if (!excludeSubtrees.isEmpty()) {
+                selected.andNot(index.matchSubtrees(excludeSubtrees));
+            }
+            return selected;
+        }
+
+        /**
+         * Projects selected by the set, like {@link #select(ReactorIndex)},
+         * recording the first include and the first exclude which matched every project.
+         * Paths, properties and subtrees are looked up one pattern at a time to know which one matched.
+         *
+         * @param index         the index of the build
+         * @param firstIncludes the first include which matched, by position in the index; filled in
+         * @param firstExcludes the first exclude which matched, by position in the index; filled in
+         * @return the positions of the selected projects in the index
+         */
+        BitSet select(ReactorIndex index, String[] firstIncludes, String[] firstExcludes) {
+            final BitSet selected = index.matchAny(includeSelectors, firstIncludes);
+            for (List<String> path : includePaths) {
+                include(selected, index.matchPaths(Collections.singletonList(path)),
+                    "path:" + String.join("/", path), firstIncludes);
+            }
+            for (String property : includeProperties) {
+                include(selected, index.matchProperties(Collections.singletonList(property)),
+                    "property:" + property, firstIncludes);
+            }
+            for (ProjectSelector subtree : includeSubtrees) {
+                include(selected, index.matchSubtrees(Collections.singletonList(subtree)),
+                    "subtree:" + subtree.getPattern(), firstIncludes);
+            }
+            index.clearMatching(selected, excludeSelectors, firstExcludes);
+            for (List<String> path : excludePaths) {
+                exclude(selected, index.matchPaths(Collections.singletonList(path)),
+                    "path:" + String.join("/", path), firstExcludes);
+            }
+            for (String property : excludeProperties) {
+                exclude(selected, index.matchProperties(Collections.singletonList(property)),
+                    "property:" + property, firstExcludes);
+            }
+            for (ProjectSelector subtree : excludeSubtrees) {
+                exclude(selected, index.matchSubtrees(Collections.singletonList(subtree)),
+                    "subtree:" + subtree.getPattern(), firstExcludes);
+            }
+            return selected;
+        }
+
+        private static void include(BitSet selected, BitSet matching, String pattern, String[] firstIncludes) {
+            for (int i = matching.nextSetBit(0); i >= 0; i = matching.nextSetBit(i + 1)) {
+                if (!selected.get(i)) {
+                    selected.set(i);
+                    firstIncludes[i] = pattern;
+                }
+            }
+        }
+
+        private static void exclude(BitSet selected, BitSet matching, String pattern, String[] firstExcludes) {
+            for (int i = matching.nextSetBit(0); i >= 0; i = matching.nextSetBit(i + 1)) {
+                if (selected.get(i)) {
+                    selected.clear(i);
+                    firstExcludes[i] = pattern;
+                }
+            }
+        }
+
+        Dependency expectedDependency(ProjectCoordinates project) {
+            final Dependency d = project.toDependency();
+            if (type != null) {
+                d.setType(type);
+            }
+            d.setScope(scope);
+            return d;
+        }
+
+        String reportSuffix() {
+            return name == null ? "" : String.format(" (selection set '%s')", name);
+        }
+    }
 }
@@ -0,0 +1,150 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import javax.annotation.Nullable;
+
+import org.apache.maven.model.Dependency;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Hashed lookup of the dependencies of the current project.
+ * Built once per execution, so every selected project is checked with one lookup
+ * instead of a scan of the whole dependency list.
+ * Dependencies are equal when GroupId, ArtifactId, Version and Type match,
+ * like in {@link DependOnAllProjects#dependenciesAreEquals(Dependency, Dependency)}.
+ * Types are compared as canonical types, see {@link DependencyTypes}.
+ * Repeated declarations of the same artifact are collected while indexing,
+ * so duplicates and version conflicts are known without another pass.
+ */
+final class DependencyIndex {
+
+    /**
+     * First declaration of every artifact, by key "groupId:artifactId:canonicalType".
+     */
+    private final Map<String, Dependency> dependencies = new HashMap<>();
+    /**
+     * Later declarations of the same artifact, in declaration order. Usually empty.
+     */
+    private final Map<String, List<Dependency>> repeated = new LinkedHashMap<>();
+    /**
+     * Resolution of the types.
+     */
+    private final DependencyTypes types;
+    /**
+     * Number of distinct dependencies.
+     */
+    private int size;
+
+    /**
+     * Constructor. Types are compared as they are.
+     *
+     * @param dependencies the dependencies to index
+     */
+    DependencyIndex(Iterable<Dependency> dependencies) {
+        this(dependencies, DependencyTypes.RAW);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param dependencies the dependencies to index
+     * @param types        resolution of the types
+     */
+    DependencyIndex(Iterable<Dependency> dependencies, DependencyTypes types) {
+        this.types = types;
+        for (Dependency d : dependencies) {
+            final String key = key(d);
+            final Dependency first = this.dependencies.putIfAbsent(key, d);
+            if (first == null) {
+                size++;
+            } else {
+                final List<Dependency> more = repeated.computeIfAbsent(key, k -> new ArrayList<>());
+                if (findVersion(first, more, d.getVersion()) == null) {
+                    size++;
+                }
+                more.add(d);
+            }
+        }
+    }
+
+    /**
+     * Lookup key of a dependency.
+     *
+     * @param d Dependency object
+     * @return key "groupId:artifactId:canonicalType"
+     */
+    String key(Dependency d) {
+        return d.getGroupId() + ':' + d.getArtifactId() + ':' + types.canonical(d.getType());
+    }
+
+    /**
+     * Find the Dependency object which equals the expected one.
+     * Scope is not compared.
+     *
+     * @param expected the expected Dependency object
+     * @return the matching Dependency object, or null if not found
+     */
+    @Nullable
+    Dependency find(Dependency expected) {
+        final String key = key(expected);
+        final Dependency first = dependencies.get(key);
+        if (first == null) {
+            return null;
+        }
+        return findVersion(first, repeated.get(key), expected.getVersion());
+    }
+
+    /**
+     * The first declaration with the version.
+     *
+     * @param first   the first declaration of the dependency
+     * @param more    the later declarations of the same dependency, or null if none
+     * @param version the version
+     * @return the declaration, or null if no declaration has the version
+     */
+    @Nullable
+    private static Dependency findVersion(Dependency first, @Nullable List<Dependency> more, String version) {
+        if (Objects.equals(first.getVersion(), version)) {
+            return first;
+        }
+        if (more != null) {
+            for (Dependency d : more) {
+                if (Objects.equals(d.getVersion(), version)) {
+                    return d;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of distinct dependencies in the index.
+     *
+     * @return the size
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * All declarations of the artifacts which are declared more than once.
+     * Declarations with the same version are duplicates; different versions are conflicts.
+     *
+     * @return the declarations in declaration order, by "groupId:artifactId:canonicalType"
+     */
+    Map<String, List<Dependency>> repeatedDeclarations() {
+        final Map<String, List<Dependency>> declarations = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Dependency>> e : repeated.entrySet()) {
+            final List<Dependency> all = new ArrayList<>(e.getValue().size() + 1);
+            all.add(dependencies.get(e.getKey()));
+            all.addAll(e.getValue());
+            declarations.put(e.getKey(), all);
+        }
+        return declarations;
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import javax.annotation.Nullable;
+
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolution of packagings and dependency types to the canonical dependency type,
+ * with the artifact handlers of the build.
+ * A packaging or type whose artifact has no classifier resolves to the extension of the artifact,
+ * e.g. packaging 'bundle', 'maven-plugin' or 'ejb' resolves to 'jar'.
+ * Types with a classifier, e.g. 'test-jar', are kept as they are.
+ * Every type is resolved once; one instance is shared by the projects of a build.
+ */
+final class DependencyTypes {
+
+    /**
+     * No artifact handlers: every type is kept as it is.
+     */
+    static final DependencyTypes RAW = new DependencyTypes(null);
+
+    /**
+     * Artifact handlers of the build, or null if not known.
+     */
+    private final ArtifactHandlerManager artifactHandlerManager;
+    /**
+     * Canonical types by packaging or type.
+     */
+    private final Map<String, String> canonicalTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param artifactHandlerManager the artifact handlers of the build, or null if not known
+     */
+    DependencyTypes(@Nullable ArtifactHandlerManager artifactHandlerManager) {
+        this.artifactHandlerManager = artifactHandlerManager;
+    }
+
+    /**
+     * The canonical dependency type of a packaging or a type.
+     *
+     * @param type the packaging or the type, e.g. "maven-plugin"
+     * @return the canonical type, e.g. "jar"
+     */
+    @Nullable
+    String canonical(@Nullable String type) {
+        if (type == null || artifactHandlerManager == null) {
+            return type;
+        }
+        return canonicalTypes.computeIfAbsent(type, this::resolve);
+    }
+
+    private String resolve(String type) {
+        final ArtifactHandler handler = artifactHandlerManager.getArtifactHandler(type);
+        if (handler == null || handler.getExtension() == null || handler.getExtension().isEmpty()
+            || (handler.getClassifier() != null && !handler.getClassifier().isEmpty())) {
+            return type;
+        }
+        return handler.getExtension();
+    }
+}
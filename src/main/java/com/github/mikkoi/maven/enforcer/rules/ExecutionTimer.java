@@ -0,0 +1,95 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures where the time of one execution of the rule goes.
+ * The execution is split into consecutive phases, e.g. validation, matching and comparison.
+ * Each call to {@link #lap(String)} ends the current phase.
+ */
+final class ExecutionTimer {
+
+    /**
+     * Clock in nanoseconds.
+     */
+    private final LongSupplier clock;
+    /**
+     * Start of the execution.
+     */
+    private final long start;
+    /**
+     * Start of the current phase.
+     */
+    private long phaseStart;
+    /**
+     * Elapsed nanoseconds by phase, in the order of the phases.
+     */
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * Constructor. Starts the first phase.
+     */
+    ExecutionTimer() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Constructor. Starts the first phase.
+     *
+     * @param clock clock in nanoseconds
+     */
+    ExecutionTimer(LongSupplier clock) {
+        this.clock = clock;
+        this.start = clock.getAsLong();
+        this.phaseStart = start;
+    }
+
+    /**
+     * End the current phase and start the next one.
+     * If the phase has been ended before, the time is added to it.
+     *
+     * @param phase name of the phase which ends
+     */
+    void lap(String phase) {
+        final long now = clock.getAsLong();
+        phases.merge(phase, now - phaseStart, Long::sum);
+        phaseStart = now;
+    }
+
+    /**
+     * Time since the start of the execution.
+     *
+     * @return milliseconds
+     */
+    long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos());
+    }
+
+    /**
+     * Time since the start of the execution.
+     *
+     * @return nanoseconds
+     */
+    long elapsedNanos() {
+        return clock.getAsLong() - start;
+    }
+
+    /**
+     * Time of every phase.
+     *
+     * @return e.g. "validation 3 ms, matching 12 ms, comparison 1 ms"
+     */
+    String breakdown() {
+        final StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> e : phases.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(e.getKey()).append(' ').append(TimeUnit.NANOSECONDS.toMillis(e.getValue())).append(" ms");
+        }
+        return sb.toString();
+    }
+}
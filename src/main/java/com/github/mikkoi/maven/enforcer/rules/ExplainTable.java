@@ -0,0 +1,125 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Table which explains the decision of the rule for every project in the build:
+ * the first include and the first exclude which matched the project, and the result.
+ * Includes and excludes are recorded while the projects are selected, so no extra matching is done.
+ * Paths, properties and subtrees are shown as "path:...", "property:..." and "subtree:...".
+ * The table is written to the target directory of the project which executes the rule.
+ */
+final class ExplainTable {
+
+    /**
+     * Constant value: Name of the file.
+     */
+    static final String FILE_NAME = "dependOnAllProjects-explain.txt";
+    /**
+     * Constant value: Project is selected but not checked, i.e. the current project or the root project.
+     */
+    static final String SKIPPED = "skipped";
+    /**
+     * Constant value: Project is selected and a dependency exists, but with another scope.
+     */
+    static final String WRONG_SCOPE = "wrong-scope";
+    /**
+     * Constant value: Nothing matched.
+     */
+    private static final String NONE = "-";
+    /**
+     * Constant value: Number of columns when the selection set is shown.
+     */
+    private static final int NUM_COLUMNS_WITH_SETS = 5;
+
+    /** Column names. */
+    private final String[] header;
+    /** Rows, in the build order. */
+    private final List<String[]> rows = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param withSets Show the selection set which decided
+     */
+    ExplainTable(boolean withSets) {
+        this.header = withSets
+            ? new String[] {"project", "set", "include", "exclude", "result"}
+            : new String[] {"project", "include", "exclude", "result"};
+    }
+
+    /**
+     * Add the row of a project.
+     *
+     * @param project the project
+     * @param set     name of the selection set, or null if none
+     * @param include the first include which matched, or null if none
+     * @param exclude the first exclude which matched, or null if none
+     * @param result  the result, e.g. 'covered'
+     */
+    void add(ProjectCoordinates project, String set, String include, String exclude, String result) {
+        final String[] row = new String[header.length];
+        int c = 0;
+        row[c++] = project.getMatchId();
+        if (header.length == NUM_COLUMNS_WITH_SETS) {
+            row[c++] = set == null ? NONE : set;
+        }
+        row[c++] = include == null ? NONE : include;
+        row[c++] = exclude == null ? NONE : exclude;
+        row[c] = result;
+        rows.add(row);
+    }
+
+    /**
+     * Format the table with aligned columns.
+     *
+     * @return the lines
+     */
+    List<String> format() {
+        final int[] widths = new int[header.length];
+        for (int c = 0; c < header.length; c++) {
+            widths[c] = header[c].length();
+            for (String[] row : rows) {
+                widths[c] = Math.max(widths[c], row[c].length());
+            }
+        }
+        final List<String> lines = new ArrayList<>(rows.size() + 1);
+        lines.add(formatRow(header, widths));
+        for (String[] row : rows) {
+            lines.add(formatRow(row, widths));
+        }
+        return lines;
+    }
+
+    private static String formatRow(String[] row, int[] widths) {
+        final StringBuilder sb = new StringBuilder();
+        for (int c = 0; c < row.length; c++) {
+            sb.append(row[c]);
+            if (c < row.length - 1) {
+                for (int i = row[c].length(); i < widths[c] + 2; i++) {
+                    sb.append(' ');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write the table.
+     *
+     * @param directory the target directory of the project
+     * @return the file
+     * @throws IOException if writing fails
+     */
+    File write(File directory) throws IOException {
+        final File file = new File(directory, FILE_NAME);
+        Files.createDirectories(directory.toPath());
+        Files.write(file.toPath(), format(), StandardCharsets.UTF_8);
+        return file;
+    }
+}
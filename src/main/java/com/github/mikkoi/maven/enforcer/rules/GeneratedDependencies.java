@@ -0,0 +1,115 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import org.apache.maven.model.Dependency;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Generated list of the dependencies on every selected project of the build, in the build order.
+ * Format 'dependencies' is a &lt;dependencies&gt; fragment to include in a POM.
+ * Format 'pom' is a standalone POM of packaging pom with the dependencies,
+ * so an aggregator can depend on it instead of listing every project.
+ * The file is written in one streaming pass to the target directory of the project which executes the rule.
+ */
+final class GeneratedDependencies {
+
+    /**
+     * Constant value: Do not generate.
+     */
+    static final String FORMAT_NONE = "none";
+    /**
+     * Constant value: Generate a dependencies fragment.
+     */
+    static final String FORMAT_DEPENDENCIES = "dependencies";
+    /**
+     * Constant value: Generate a standalone POM.
+     */
+    static final String FORMAT_POM = "pom";
+    /**
+     * Constant value: Name of the file without format and extension.
+     */
+    static final String FILE_NAME = "dependOnAllProjects-";
+    /**
+     * Constant value: Suffix of the artifactId of the generated POM.
+     */
+    static final String ARTIFACT_ID_SUFFIX = "-aggregate-all";
+
+    private GeneratedDependencies() {
+    }
+
+    /**
+     * The file the dependencies are written to.
+     *
+     * @param directory the target directory of the project
+     * @param format    'dependencies' or 'pom'
+     * @return the file
+     */
+    static File file(File directory, String format) {
+        return new File(directory, FILE_NAME + format + ".xml");
+    }
+
+    /**
+     * Write the dependencies.
+     *
+     * @param file         the file
+     * @param format       'dependencies' or 'pom'
+     * @param owner        the project which executes the rule; the generated POM gets its groupId and version
+     * @param dependencies the dependencies, in the build order
+     * @throws IOException if writing fails
+     */
+    static void write(File file, String format, ProjectCoordinates owner,
+                      Iterable<Dependency> dependencies) throws IOException {
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<!-- Generated by Maven Enforcer rule dependOnAllProjects. Do not edit. -->\n");
+            String indent = "";
+            if (FORMAT_POM.equals(format)) {
+                writer.write("<project xmlns=\"http://maven.apache.org/POM/4.0.0\"\n"
+                    + "         xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\"\n"
+                    + "         xsi:schemaLocation=\"http://maven.apache.org/POM/4.0.0"
+                    + " https://maven.apache.org/xsd/maven-4.0.0.xsd\">\n");
+                writer.write("    <modelVersion>4.0.0</modelVersion>\n");
+                element(writer, "    ", "groupId", owner.getGroupId());
+                element(writer, "    ", "artifactId", owner.getArtifactId() + ARTIFACT_ID_SUFFIX);
+                element(writer, "    ", "version", owner.getVersion());
+                element(writer, "    ", "packaging", "pom");
+                indent = "    ";
+            }
+            writer.write(indent + "<dependencies>\n");
+            for (Dependency d : dependencies) {
+                writer.write(indent + "    <dependency>\n");
+                final String inner = indent + "        ";
+                element(writer, inner, "groupId", d.getGroupId());
+                element(writer, inner, "artifactId", d.getArtifactId());
+                element(writer, inner, "version", d.getVersion());
+                if (d.getType() != null && !"jar".equals(d.getType())) {
+                    element(writer, inner, "type", d.getType());
+                }
+                if (d.getScope() != null && !"compile".equals(d.getScope())) {
+                    element(writer, inner, "scope", d.getScope());
+                }
+                writer.write(indent + "    </dependency>\n");
+            }
+            writer.write(indent + "</dependencies>\n");
+            if (FORMAT_POM.equals(format)) {
+                writer.write("</project>\n");
+            }
+        }
+    }
+
+    private static void element(Writer writer, String indent, String name, String value) throws IOException {
+        writer.write(indent);
+        writer.write('<');
+        writer.write(name);
+        writer.write('>');
+        writer.write(String.valueOf(value).replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;"));
+        writer.write("</");
+        writer.write(name);
+        writer.write(">\n");
+    }
+}
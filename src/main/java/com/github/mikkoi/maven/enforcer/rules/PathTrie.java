@@ -0,0 +1,136 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prefix trie of the project directories, relative to the top level project.
+ * Every node is one directory name. Built once over the build.
+ * Every node knows the positions of the projects in its whole subtree,
+ * so a pattern which covers a subtree (e.g. "services/**") is resolved
+ * with one walk down the trie, without checking every project.
+ * Pattern syntax: directory names separated by '/'.
+ * '*' matches any one directory name, '**' as the last name matches the directory and everything below it.
+ * An empty pattern or '.' matches the top level project.
+ */
+final class PathTrie {
+
+    /**
+     * Constant value: Matches any one directory name.
+     */
+    static final String ANY_NAME = "*";
+    /**
+     * Constant value: Matches the directory and everything below it.
+     */
+    static final String SUBTREE = "**";
+
+    /**
+     * Node of the trie: one directory.
+     */
+    private static final class Node {
+        /** Subdirectories by name. */
+        private final Map<String, Node> children = new HashMap<>();
+        /** Positions of the projects in this directory. */
+        private final BitSet here = new BitSet();
+        /** Positions of the projects in this directory and below it. */
+        private final BitSet subtree = new BitSet();
+    }
+
+    /** The top level directory. */
+    private final Node root = new Node();
+
+    /**
+     * Add a project.
+     *
+     * @param path     the directory of the project relative to the top level project, "" for the top level project
+     * @param position position of the project in the build order
+     */
+    void add(String path, int position) {
+        Node node = root;
+        node.subtree.set(position);
+        for (String name : split(path)) {
+            node = node.children.computeIfAbsent(name, k -> new Node());
+            node.subtree.set(position);
+        }
+        node.here.set(position);
+    }
+
+    /**
+     * Positions of the projects matching the pattern.
+     *
+     * @param pattern the pattern, parsed with {@link #parse(String)}
+     * @return the positions
+     */
+    BitSet select(List<String> pattern) {
+        List<Node> nodes = Collections.singletonList(root);
+        for (int i = 0; i < pattern.size() && !nodes.isEmpty(); i++) {
+            final String name = pattern.get(i);
+            if (SUBTREE.equals(name)) {
+                final BitSet result = new BitSet();
+                for (Node node : nodes) {
+                    result.or(node.subtree);
+                }
+                return result;
+            }
+            final List<Node> next = new ArrayList<>();
+            for (Node node : nodes) {
+                if (ANY_NAME.equals(name)) {
+                    next.addAll(node.children.values());
+                } else {
+                    final Node child = node.children.get(name);
+                    if (child != null) {
+                        next.add(child);
+                    }
+                }
+            }
+            nodes = next;
+        }
+        final BitSet result = new BitSet();
+        for (Node node : nodes) {
+            result.or(node.here);
+        }
+        return result;
+    }
+
+    /**
+     * Parse a pattern into directory names.
+     *
+     * @param pattern the pattern, e.g. "services/**"
+     * @return the names, e.g. ["services", "**"]
+     * @throws IllegalArgumentException if '**' is not the last name, or a name contains '*' with other characters.
+     */
+    static List<String> parse(String pattern) {
+        final List<String> names = split(pattern);
+        for (int i = 0; i < names.size(); i++) {
+            final String name = names.get(i);
+            if (SUBTREE.equals(name) && i < names.size() - 1) {
+                throw new IllegalArgumentException("'**' must be the last directory name");
+            }
+            if (name.contains(ANY_NAME) && !ANY_NAME.equals(name) && !SUBTREE.equals(name)) {
+                throw new IllegalArgumentException("'*' must be a whole directory name");
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Split a path into directory names. Both '/' and '\' are separators.
+     * Empty names and '.' are skipped.
+     *
+     * @param path the path
+     * @return the names
+     */
+    static List<String> split(String path) {
+        final List<String> names = new ArrayList<>();
+        for (String name : path.split("[/\\\\]")) {
+            if (!name.isEmpty() && !".".equals(name)) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
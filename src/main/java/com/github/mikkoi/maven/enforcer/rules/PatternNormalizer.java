@@ -0,0 +1,124 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Removes the redundant patterns from a list of include or exclude patterns, [groupId:]artifactId[:packagingType].
+ * A pattern is redundant if another pattern in the same list matches every project it matches:
+ * a duplicate, e.g. 'foo' and '*:foo', or a narrower pattern, e.g. 'com.acme:foo-bar' next to 'com.acme:foo-*'.
+ * The list matches the same projects after normalization, but every project is matched against fewer patterns.
+ * Duplicates are found by comparing the regular expressions
+ * of {@link DependOnAllProjects#convertStringForMatching(String)}.
+ * Narrower patterns are only found when both patterns consist of names and wildcards;
+ * patterns with other special characters are kept as they are.
+ */
+final class PatternNormalizer {
+
+    private PatternNormalizer() {
+    }
+
+    /**
+     * Normalize a list of patterns.
+     * The order is kept; a broader pattern takes the place of the first pattern it replaces.
+     *
+     * @param patterns  the patterns, validated
+     * @param redundant called with every redundant pattern and the pattern which makes it redundant
+     * @return the patterns without the redundant ones
+     */
+    static List<String> normalize(List<String> patterns, BiConsumer<String, String> redundant) {
+        final List<String> kept = new ArrayList<>(patterns.size());
+        final List<String> keptRegexes = new ArrayList<>(patterns.size());
+        final List<String> keptGlobs = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            final String regex = DependOnAllProjects.convertStringForMatching(pattern);
+            final String glob = glob(pattern);
+            String coveredBy = null;
+            for (int i = 0; i < kept.size() && coveredBy == null; i++) {
+                if (kept.get(i) != null && (keptRegexes.get(i).equals(regex)
+                    || glob != null && keptGlobs.get(i) != null && covers(keptGlobs.get(i), glob))) {
+                    coveredBy = kept.get(i);
+                }
+            }
+            if (coveredBy != null) {
+                redundant.accept(pattern, coveredBy);
+                continue;
+            }
+            int position = -1;
+            for (int i = 0; i < kept.size() && glob != null; i++) {
+                if (kept.get(i) != null && keptGlobs.get(i) != null && covers(glob, keptGlobs.get(i))) {
+                    redundant.accept(kept.get(i), pattern);
+                    kept.set(i, null);
+                    if (position < 0) {
+                        position = i;
+                    }
+                }
+            }
+            if (position < 0) {
+                kept.add(pattern);
+                keptRegexes.add(regex);
+                keptGlobs.add(glob);
+            } else {
+                kept.set(position, pattern);
+                keptRegexes.set(position, regex);
+                keptGlobs.set(position, glob);
+            }
+        }
+        final List<String> normalized = new ArrayList<>(kept.size());
+        for (String pattern : kept) {
+            if (pattern != null) {
+                normalized.add(pattern);
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * The pattern with all three parts, groupId:artifactId:packagingType,
+     * completed like in {@link DependOnAllProjects#convertStringForMatching(String)}.
+     *
+     * @param pattern the pattern
+     * @return the glob, or null if the pattern has other special characters than '*'
+     */
+    static String glob(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '.' && c != '-' && c != '_' && c != ':' && c != '*') {
+                return null;
+            }
+        }
+        String g = pattern;
+        if (!g.contains(":")) {
+            g = "*:" + g + ":*";
+        }
+        if (g.split(":").length < DependOnAllProjects.MAX_NUM_PARTS_IN_DEPENDENCY_DECLARATION) {
+            g = g + ":*";
+        }
+        return g;
+    }
+
+    /**
+     * Does glob a match every string glob b matches?
+     * A '*' in a matches any characters, also a '*' in b; other characters only match themselves.
+     *
+     * @param a the broader glob
+     * @param b the narrower glob
+     * @return true if a covers b
+     */
+    static boolean covers(String a, String b) {
+        // matches[i][j]: a from i matches b from j.
+        final boolean[][] matches = new boolean[a.length() + 1][b.length() + 1];
+        matches[a.length()][b.length()] = true;
+        for (int i = a.length() - 1; i >= 0; i--) {
+            for (int j = b.length(); j >= 0; j--) {
+                if (a.charAt(i) == '*') {
+                    matches[i][j] = matches[i + 1][j] || j < b.length() && matches[i][j + 1];
+                } else {
+                    matches[i][j] = j < b.length() && a.charAt(i) == b.charAt(j) && matches[i + 1][j + 1];
+                }
+            }
+        }
+        return matches[0][0];
+    }
+}
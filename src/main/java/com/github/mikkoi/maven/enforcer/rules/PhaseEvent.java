@@ -0,0 +1,50 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+/**
+ * Event of one phase of the rule, e.g. parameter validation or dependency comparison.
+ * On Java 11 and later, this class is replaced by a Java Flight Recorder event
+ * from src/main/java11 (multi-release JAR).
+ * This version, for Java 8, does nothing.
+ * Usage: create and begin when the phase starts,
+ * and when it ends, fill in and commit only if {@link #shouldCommit()}.
+ */
+class PhaseEvent {
+
+    /**
+     * Constructor.
+     *
+     * @param phase name of the phase
+     */
+    @SuppressWarnings("PMD.UnusedFormalParameter") // The signature mirrors the Java 11 event, which records the phase.
+    PhaseEvent(String phase) {
+        // Nothing to record on Java 8.
+    }
+
+    /**
+     * Start the timing of the event.
+     */
+    public void begin() {
+        // Nothing to record on Java 8.
+    }
+
+    /**
+     * Is the event enabled in a recording and over the threshold?
+     *
+     * @return false
+     */
+    public boolean shouldCommit() {
+        return false;
+    }
+
+    /**
+     * Fill in and commit the event.
+     *
+     * @param project        the current project, groupId:artifactId
+     * @param reactorSize    number of projects in the build
+     * @param patternCount   number of include and exclude patterns
+     * @param violationCount number of violations found so far
+     */
+    void commit(String project, int reactorSize, int patternCount, int violationCount) {
+        // Nothing to record on Java 8.
+    }
+}
@@ -0,0 +1,372 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lightweight scanner of a multimodule project tree.
+ * Starting from the top level POM, follows the &lt;modules&gt; and reads only
+ * the coordinates, packaging, modules and properties of every POM with a streaming parser.
+ * POM files are read in parallel in a pool of the scanner, bounded to {@link #MAX_PARALLELISM} threads.
+ * No models are built and nothing is resolved, so this is much cheaper than a full reactor build.
+ * Limitations: modules in profiles are not followed, groupId and version are inherited
+ * only from the &lt;parent&gt; element, and properties (${...}) are resolved from the user properties,
+ * the POM itself, the POMs of its aggregators and, last, the system properties.
+ * Dependencies are not read, so the projects are in the module declaration order, not in the build order.
+ */
+final class PomScanner {
+
+    /**
+     * Constant value: Maximum number of nested property references.
+     */
+    private static final int MAX_PROPERTY_DEPTH = 10;
+    /**
+     * Constant value: Maximum number of threads reading POM files.
+     */
+    static final int MAX_PARALLELISM = 8;
+    /**
+     * Constant value: Depth of the deepest element the scanner reads, e.g. project/parent/version.
+     */
+    private static final int MAX_WANTED_DEPTH = 3;
+    /**
+     * Property reference: ${name}.
+     */
+    private static final Pattern PROPERTY_REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+    /**
+     * Factory for the streaming parsers. Thread safe after configuration.
+     */
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    /**
+     * Properties which override POM properties, i.e. user properties (-D) of the build.
+     */
+    private final Properties userProperties;
+    /**
+     * Properties used when neither the user nor the POM defines a property, i.e. system properties.
+     */
+    private final Properties systemProperties;
+
+    /**
+     * Constructor.
+     *
+     * @param userProperties   properties which override POM properties
+     * @param systemProperties properties used when a POM does not define a property
+     */
+    PomScanner(Properties userProperties, Properties systemProperties) {
+        this.userProperties = userProperties;
+        this.systemProperties = systemProperties;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * A project found by the scanner.
+     */
+    static final class ScannedProject {
+        /** Coordinates of the project. */
+        private final ProjectCoordinates coordinates;
+        /** The POM file. */
+        private final File pomFile;
+        /** Parent, "groupId:artifactId", or null if no parent. */
+        private final String parentKey;
+        /** Properties of the project and its aggregators. */
+        private final Properties properties;
+        /** Modules of the project, in declaration order. */
+        private final List<ScannedProject> modules;
+
+        ScannedProject(ProjectCoordinates coordinates, File pomFile, @Nullable String parentKey,
+                       Properties properties, List<ScannedProject> modules) {
+            this.coordinates = coordinates;
+            this.pomFile = pomFile;
+            this.parentKey = parentKey;
+            this.properties = properties;
+            this.modules = Collections.unmodifiableList(modules);
+        }
+
+        ProjectCoordinates getCoordinates() {
+            return coordinates;
+        }
+
+        File getPomFile() {
+            return pomFile;
+        }
+
+        @Nullable
+        String getParentKey() {
+            return parentKey;
+        }
+
+        Properties getProperties() {
+            return properties;
+        }
+
+        List<ScannedProject> getModules() {
+            return modules;
+        }
+    }
+
+    /**
+     * Scan the project tree.
+     *
+     * @param pomFile the top level POM file
+     * @return the top level project with its modules
+     * @throws IOException if a POM file cannot be read or parsed
+     */
+    ScannedProject scan(File pomFile) throws IOException {
+        final ForkJoinPool pool = new ForkJoinPool(
+            Math.min(MAX_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+        try {
+            return pool.invoke(new ScanTask(pomFile, new Properties()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * All projects of the tree, the aggregator before its modules, in the module declaration order.
+     *
+     * @param project the top level project
+     * @return the projects
+     */
+    static List<ScannedProject> flatten(ScannedProject project) {
+        final List<ScannedProject> projects = new ArrayList<>();
+        flatten(project, projects);
+        return projects;
+    }
+
+    private static void flatten(ScannedProject project, List<ScannedProject> projects) {
+        projects.add(project);
+        for (ScannedProject module : project.getModules()) {
+            flatten(module, projects);
+        }
+    }
+
+    /**
+     * Reads one POM file and forks the reading of its modules.
+     */
+    private final class ScanTask extends RecursiveTask<ScannedProject> {
+        private static final long serialVersionUID = 1L;
+        /** The POM file. */
+        private final File pomFile;
+        /** Properties of the aggregators. */
+        private final Properties inheritedProperties;
+
+        ScanTask(File pomFile, Properties inheritedProperties) {
+            this.pomFile = pomFile;
+            this.inheritedProperties = inheritedProperties;
+        }
+
+        @Override
+        protected ScannedProject compute() {
+            final PomContent pom;
+            try {
+                pom = read(pomFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            final Properties projectProperties = new Properties();
+            projectProperties.putAll(inheritedProperties);
+            projectProperties.putAll(pom.properties);
+            final Properties properties = new Properties();
+            properties.putAll(projectProperties);
+            final String groupId = pom.groupId != null ? pom.groupId : pom.parentGroupId;
+            final String version = pom.version != null ? pom.version : pom.parentVersion;
+            properties.setProperty("project.groupId", String.valueOf(groupId));
+            properties.setProperty("project.artifactId", String.valueOf(pom.artifactId));
+            properties.setProperty("project.version", String.valueOf(version));
+            properties.setProperty("project.parent.groupId", String.valueOf(pom.parentGroupId));
+            properties.setProperty("project.parent.version", String.valueOf(pom.parentVersion));
+            final ProjectCoordinates coordinates = new ProjectCoordinates(
+                resolve(groupId, properties), resolve(pom.artifactId, properties),
+                resolve(version, properties), pom.packaging == null ? "jar" : resolve(pom.packaging, properties));
+
+            final List<ScanTask> tasks = new ArrayList<>(pom.modules.size());
+            for (String module : pom.modules) {
+                File moduleFile = new File(pomFile.getParentFile(), resolve(module, properties));
+                if (moduleFile.isDirectory()) {
+                    moduleFile = new File(moduleFile, "pom.xml");
+                }
+                tasks.add(new ScanTask(moduleFile, projectProperties));
+            }
+            invokeAll(tasks);
+            final List<ScannedProject> modules = new ArrayList<>(tasks.size());
+            for (ScanTask task : tasks) {
+                modules.add(task.join());
+            }
+            final String parentKey = pom.parentArtifactId == null ? null
+                : resolve(pom.parentGroupId, properties) + ':' + resolve(pom.parentArtifactId, properties);
+            return new ScannedProject(coordinates, pomFile, parentKey, projectProperties, modules);
+        }
+    }
+
+    /**
+     * Resolve property references in a value.
+     *
+     * @param value      the value, e.g. "${revision}"
+     * @param properties properties of the POM and its aggregators
+     * @return the resolved value; unknown references are left as they are
+     */
+    String resolve(String value, Properties properties) {
+        if (value == null) {
+            return null;
+        }
+        String result = value;
+        for (int depth = 0; depth < MAX_PROPERTY_DEPTH && result.contains("${"); depth++) {
+            final Matcher m = PROPERTY_REFERENCE.matcher(result);
+            final StringBuffer sb = new StringBuffer();
+            boolean changed = false;
+            while (m.find()) {
+                String replacement = userProperties.getProperty(m.group(1));
+                if (replacement == null) {
+                    replacement = properties.getProperty(m.group(1));
+                }
+                if (replacement == null) {
+                    replacement = systemProperties.getProperty(m.group(1));
+                }
+                if (replacement == null) {
+                    replacement = m.group();
+                } else {
+                    changed = true;
+                }
+                m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+            }
+            m.appendTail(sb);
+            result = sb.toString();
+            if (!changed) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The parts of a POM file the scanner needs.
+     */
+    static final class PomContent {
+        /** GroupId, or null if inherited. */
+        private String groupId;
+        /** ArtifactId. */
+        private String artifactId;
+        /** Version, or null if inherited. */
+        private String version;
+        /** Packaging, or null if default. */
+        private String packaging;
+        /** GroupId of the parent. */
+        private String parentGroupId;
+        /** ArtifactId of the parent. */
+        private String parentArtifactId;
+        /** Version of the parent. */
+        private String parentVersion;
+        /** Modules. */
+        private final List<String> modules = new ArrayList<>();
+        /** Properties. */
+        private final Properties properties = new Properties();
+    }
+
+    /**
+     * Read the coordinates, packaging, parent, modules and properties of a POM file.
+     * Other elements are skipped without building any objects.
+     *
+     * @param pomFile the POM file
+     * @return the content
+     * @throws IOException if the file cannot be read or parsed
+     */
+    static PomContent read(File pomFile) throws IOException {
+        final PomContent pom = new PomContent();
+        try (InputStream in = Files.newInputStream(pomFile.toPath())) {
+            final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                // Path of element names from <project>, e.g. ["project", "parent", "version"]
+                final List<String> path = new ArrayList<>();
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        path.add(reader.getLocalName());
+                        if (path.size() <= MAX_WANTED_DEPTH && isWanted(path)) {
+                            final String text = reader.getElementText().trim();
+                            store(pom, path, text);
+                            path.remove(path.size() - 1);
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        path.remove(path.size() - 1);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException(String.format("Cannot parse POM file '%s': %s", pomFile, e.getMessage()), e);
+        }
+        return pom;
+    }
+
+    private static boolean isWanted(List<String> path) {
+        if (path.size() == 2) {
+            final String name = path.get(1);
+            return "groupId".equals(name) || "artifactId".equals(name) || "version".equals(name)
+                || "packaging".equals(name);
+        }
+        if (path.size() == MAX_WANTED_DEPTH) {
+            final String parent = path.get(1);
+            final String name = path.get(2);
+            return "properties".equals(parent)
+                || ("modules".equals(parent) && "module".equals(name))
+                || ("parent".equals(parent)
+                && ("groupId".equals(name) || "artifactId".equals(name) || "version".equals(name)));
+        }
+        return false;
+    }
+
+    private static void store(PomContent pom, List<String> path, String text) {
+        if (path.size() == 2) {
+            switch (path.get(1)) {
+                case "groupId":
+                    pom.groupId = text;
+                    break;
+                case "artifactId":
+                    pom.artifactId = text;
+                    break;
+                case "version":
+                    pom.version = text;
+                    break;
+                default:
+                    pom.packaging = text;
+                    break;
+            }
+        } else if ("properties".equals(path.get(1))) {
+            pom.properties.setProperty(path.get(2), text);
+        } else if ("modules".equals(path.get(1))) {
+            pom.modules.add(text);
+        } else if ("groupId".equals(path.get(2))) {
+            pom.parentGroupId = text;
+        } else if ("artifactId".equals(path.get(2))) {
+            pom.parentArtifactId = text;
+        } else {
+            pom.parentVersion = text;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Builds the index of the build and compiles the patterns of the rule once, after the projects are read
+ * and before any project is built. In a parallel build (-T) the projects which execute the rule at the same time
+ * then only read the index and the selectors, instead of racing to build them.
+ * Active when maven-enforcer-plugin is declared with &lt;extensions&gt;true&lt;/extensions&gt;,
+ * so the participant and the rule are in the same class realm.
+ * The patterns are read from the configuration of maven-enforcer-plugin in the projects;
+ * the index with parameter fullReactor is still built by the first execution.
+ */
+@Named("dependOnAllProjectsPrebuild")
+@Singleton
+public final class PrebuildParticipant extends AbstractMavenLifecycleParticipant {
+
+    /**
+     * Constant value: Key of maven-enforcer-plugin.
+     */
+    static final String ENFORCER_PLUGIN_KEY = "org.apache.maven.plugins:maven-enforcer-plugin";
+    /**
+     * Constant value: Name of the rule in the configuration.
+     */
+    static final String RULE_NAME = "dependOnAllProjects";
+    /**
+     * Constant value: Parameters which contain patterns, also inside selection sets.
+     */
+    private static final List<String> PATTERN_PARAMETERS =
+        Arrays.asList("includes", "excludes", "includeSubtrees", "excludeSubtrees");
+    /**
+     * Logger of the build.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrebuildParticipant.class);
+
+    @Override
+    public void afterProjectsRead(MavenSession session) {
+        final List<MavenProject> sortedProjects = session.getProjectDependencyGraph() != null
+            ? session.getProjectDependencyGraph().getSortedProjects()
+            : session.getProjects();
+        if (sortedProjects == null) {
+            return;
+        }
+        final Map<String, ProjectSelector> selectors = new HashMap<>();
+        boolean ruleFound = false;
+        boolean persistentCache = false;
+        for (MavenProject project : sortedProjects) {
+            for (Xpp3Dom rule : ruleConfigurations(project)) {
+                ruleFound = true;
+                final Xpp3Dom persistent = rule.getChild("persistentCache");
+                persistentCache |= persistent != null && "true".equals(persistent.getValue());
+                collectSelectors(rule, selectors);
+            }
+        }
+        if (!ruleFound) {
+            return;
+        }
+        // The default include.
+        selectors.put("*", new ProjectSelector("*"));
+        final MavenProject topLevelProject = session.getTopLevelProject();
+        final File topLevelBasedir = topLevelProject == null ? null : topLevelProject.getBasedir();
+        final ReactorIndex index = persistentCache
+            ? RuleCache.reactorIndex(sortedProjects, topLevelBasedir)
+            : ReactorIndex.of(sortedProjects, topLevelBasedir);
+        RuleCache.putPrebuilt(session, index, selectors);
+    }
+
+    /**
+     * Configurations of the rule in maven-enforcer-plugin of the project, in the plugin and in its executions.
+     *
+     * @param project the project
+     * @return the configurations, &lt;dependOnAllProjects&gt; elements
+     */
+    static List<Xpp3Dom> ruleConfigurations(MavenProject project) {
+        final List<Xpp3Dom> rules = new ArrayList<>();
+        final Plugin plugin = project.getPlugin(ENFORCER_PLUGIN_KEY);
+        if (plugin == null) {
+            return rules;
+        }
+        addRules(plugin.getConfiguration(), rules);
+        for (PluginExecution execution : plugin.getExecutions()) {
+            addRules(execution.getConfiguration(), rules);
+        }
+        return rules;
+    }
+
+    private static void addRules(Object configuration, List<Xpp3Dom> rules) {
+        if (!(configuration instanceof Xpp3Dom)) {
+            return;
+        }
+        final Xpp3Dom ruleList = ((Xpp3Dom) configuration).getChild("rules");
+        if (ruleList != null) {
+            rules.addAll(Arrays.asList(ruleList.getChildren(RULE_NAME)));
+        }
+    }
+
+    /**
+     * Compile the patterns of the rule, also of its selection sets.
+     * Invalid patterns are left to the rule to report.
+     *
+     * @param element   the configuration element
+     * @param selectors the compiled selectors by pattern
+     */
+    private static void collectSelectors(Xpp3Dom element, Map<String, ProjectSelector> selectors) {
+        for (Xpp3Dom child : element.getChildren()) {
+            if (PATTERN_PARAMETERS.contains(child.getName())) {
+                for (Xpp3Dom value : child.getChildren()) {
+                    final String pattern = value.getValue();
+                    if (pattern != null && !pattern.trim().isEmpty() && !selectors.containsKey(pattern)) {
+                        try {
+                            selectors.put(pattern, new ProjectSelector(pattern));
+                        } catch (PatternSyntaxException e) {
+                            // Not prebuilt; the rule reports the invalid pattern when it validates its parameters.
+                            LOGGER.debug("Pattern '{}' not prebuilt: {}", pattern, e.getMessage());
+                        }
+                    }
+                }
+            } else {
+                collectSelectors(child, selectors);
+            }
+        }
+    }
+}
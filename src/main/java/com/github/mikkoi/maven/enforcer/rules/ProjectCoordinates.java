@@ -0,0 +1,193 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import javax.annotation.Nullable;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compact coordinates of a project in the build.
+ * Holds only the strings the rule needs, not the MavenProject object.
+ * The directory of the project is not part of equality.
+ */
+final class ProjectCoordinates {
+
+    /** GroupId. */
+    private final String groupId;
+    /** ArtifactId. */
+    private final String artifactId;
+    /** Version. */
+    private final String version;
+    /** Packaging. */
+    private final String packaging;
+    /** Id used in matching: "groupId:artifactId:packaging". */
+    private final String matchId;
+    /** Directory of the project relative to the top level project, or null if not known. */
+    private final String path;
+
+    /**
+     * Constructor.
+     *
+     * @param groupId    GroupId
+     * @param artifactId ArtifactId
+     * @param version    Version
+     * @param packaging  Packaging
+     */
+    ProjectCoordinates(String groupId, String artifactId, String version, String packaging) {
+        this(groupId, artifactId, version, packaging, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param groupId    GroupId
+     * @param artifactId ArtifactId
+     * @param version    Version
+     * @param packaging  Packaging
+     * @param path       Directory relative to the top level project, or null if not known
+     */
+    ProjectCoordinates(String groupId, String artifactId, String version, String packaging,
+                       @Nullable String path) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.packaging = packaging;
+        this.matchId = groupId + ':' + artifactId + ':' + packaging;
+        this.path = path;
+    }
+
+    /**
+     * Copy which shares equal strings with the other coordinates of the build.
+     * GroupIds, versions and packagings repeat across the projects of a build,
+     * and e.g. the POM scanner creates a new string for every project.
+     *
+     * @param strings the strings seen so far, added to
+     * @return the copy
+     */
+    ProjectCoordinates withSharedStrings(Map<String, String> strings) {
+        return new ProjectCoordinates(shared(strings, groupId), artifactId, shared(strings, version),
+            shared(strings, packaging), path);
+    }
+
+    @Nullable
+    private static String shared(Map<String, String> strings, @Nullable String s) {
+        return s == null ? null : strings.computeIfAbsent(s, k -> k);
+    }
+
+    /**
+     * Create from MavenProject object.
+     *
+     * @param mavenProject MavenProject object
+     * @return the coordinates
+     */
+    static ProjectCoordinates of(MavenProject mavenProject) {
+        return of(mavenProject, null);
+    }
+
+    /**
+     * Create from MavenProject object, with the directory relative to the top level project.
+     *
+     * @param mavenProject    MavenProject object
+     * @param topLevelBasedir Base directory of the top level project, or null if not known
+     * @return the coordinates
+     */
+    static ProjectCoordinates of(MavenProject mavenProject, @Nullable File topLevelBasedir) {
+        return new ProjectCoordinates(mavenProject.getGroupId(), mavenProject.getArtifactId(),
+            mavenProject.getVersion(), mavenProject.getPackaging(),
+            relativePath(mavenProject.getBasedir(), topLevelBasedir));
+    }
+
+    /**
+     * Directory relative to the top level project, with '/' as separator.
+     *
+     * @param basedir         Base directory of the project
+     * @param topLevelBasedir Base directory of the top level project
+     * @return e.g. "services/billing", "" for the top level project, or null if either is null
+     */
+    @Nullable
+    static String relativePath(@Nullable File basedir, @Nullable File topLevelBasedir) {
+        if (basedir == null || topLevelBasedir == null) {
+            return null;
+        }
+        final Path top = topLevelBasedir.toPath().toAbsolutePath().normalize();
+        final Path dir = basedir.toPath().toAbsolutePath().normalize();
+        return top.relativize(dir).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Convert to Dependency object, like {@link DependOnAllProjects#projectToDependency(MavenProject)}.
+     *
+     * @return Dependency object
+     */
+    Dependency toDependency() {
+        Dependency d = new Dependency();
+        d.setGroupId(groupId);
+        d.setArtifactId(artifactId);
+        d.setVersion(version);
+        d.setType(packaging);
+        return d;
+    }
+
+    String getGroupId() {
+        return groupId;
+    }
+
+    String getArtifactId() {
+        return artifactId;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    String getPackaging() {
+        return packaging;
+    }
+
+    /**
+     * Directory relative to the top level project.
+     *
+     * @return e.g. "services/billing", "" for the top level project, or null if not known
+     */
+    @Nullable
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * Id used in matching with includes and excludes.
+     *
+     * @return "groupId:artifactId:packaging"
+     */
+    String getMatchId() {
+        return matchId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProjectCoordinates)) {
+            return false;
+        }
+        ProjectCoordinates that = (ProjectCoordinates) o;
+        return Objects.equals(groupId, that.groupId) && Objects.equals(artifactId, that.artifactId)
+            && Objects.equals(version, that.version) && Objects.equals(packaging, that.packaging);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, artifactId, version, packaging);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s:%s:%s:%s", groupId, artifactId, version, packaging);
+    }
+}
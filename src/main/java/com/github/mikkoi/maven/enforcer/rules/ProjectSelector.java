@@ -0,0 +1,87 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import javax.annotation.Nullable;
+
+import java.util.regex.Pattern;
+
+/**
+ * A compiled include or exclude pattern, [groupId:]artifactId[:packagingType].
+ * Matching is the same as {@link DependOnAllProjects#convertStringForMatching(String)}
+ * with {@link String#matches(String)}, but the regular expression is compiled only once.
+ * If the groupId or the packagingType is a literal, i.e. it contains no wildcards
+ * or other special characters, it is also kept as a string.
+ * Then the selector only needs to be evaluated against the projects with
+ * the same groupId or packaging, see {@link ReactorIndex}.
+ */
+final class ProjectSelector {
+
+    /** The pattern as given by the user. */
+    private final String pattern;
+    /** The compiled regular expression. */
+    private final Pattern regex;
+    /** Literal groupId, or null if the groupId can be anything. */
+    private final String literalGroupId;
+    /** Literal packaging, or null if the packaging can be anything. */
+    private final String literalPackaging;
+
+    /**
+     * Constructor.
+     *
+     * @param pattern the pattern, e.g. "groupId:artifact-*:war"
+     */
+    ProjectSelector(String pattern) {
+        this.pattern = pattern;
+        this.regex = Pattern.compile(DependOnAllProjects.convertStringForMatching(pattern));
+        final String[] parts = pattern.split(":", -1);
+        this.literalGroupId = parts.length > 1 && isLiteral(parts[0]) ? parts[0] : null;
+        this.literalPackaging = parts.length == DependOnAllProjects.MAX_NUM_PARTS_IN_DEPENDENCY_DECLARATION && isLiteral(parts[2]) ? parts[2] : null;
+    }
+
+    /**
+     * Is the part of a pattern a literal string which only matches itself?
+     *
+     * @param part part of a pattern
+     * @return true if literal
+     */
+    static boolean isLiteral(String part) {
+        if (part.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < part.length(); i++) {
+            final char c = part.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '.' && c != '-' && c != '_') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Does the project match this selector?
+     *
+     * @param project the project
+     * @return true if matches
+     */
+    boolean matches(ProjectCoordinates project) {
+        return regex.matcher(project.getMatchId()).matches();
+    }
+
+    String getPattern() {
+        return pattern;
+    }
+
+    @Nullable
+    String getLiteralGroupId() {
+        return literalGroupId;
+    }
+
+    @Nullable
+    String getLiteralPackaging() {
+        return literalPackaging;
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
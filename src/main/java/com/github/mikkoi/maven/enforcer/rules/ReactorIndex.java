@@ -0,0 +1,425 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import javax.annotation.Nullable;
+
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the projects in the build, in the sorted (build) order.
+ * The projects are partitioned by packaging and by groupId once.
+ * The properties of the projects are collected once into a lookup by name and value.
+ * The module hierarchy (aggregators and parents) is kept as links between positions,
+ * and the subtree of a project is computed once when first needed.
+ * A selection is a BitSet of positions in the build order.
+ */
+final class ReactorIndex {
+
+    /** Projects in the build order. */
+    private final List<ProjectCoordinates> projects;
+    /** Positions of the projects by packaging. */
+    private final Map<String, BitSet> byPackaging = new HashMap<>();
+    /** Positions of the projects by groupId. */
+    private final Map<String, BitSet> byGroupId = new HashMap<>();
+    /** All positions. */
+    private final BitSet all;
+    /** Projects by directory, relative to the top level project. */
+    private final PathTrie paths = new PathTrie();
+    /** Positions of the projects by property name and value. */
+    private final Map<String, Map<String, BitSet>> byProperty = new HashMap<>();
+    /** Positions of the projects by property name, any value. */
+    private final Map<String, BitSet> byPropertyName = new HashMap<>();
+    /** Positions of the modules and child projects of every project, null if none. */
+    private final BitSet[] children;
+    /** Subtrees computed so far, by position of the root. */
+    private final Map<Integer, BitSet> subtrees = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param projects the projects in the build order
+     */
+    ReactorIndex(List<ProjectCoordinates> projects) {
+        this(projects, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param projects   the projects in the build order
+     * @param properties the properties of the projects in the same order, or null if not known
+     */
+    ReactorIndex(List<ProjectCoordinates> projects, @Nullable List<Properties> properties) {
+        if (properties != null) {
+            for (int i = 0; i < properties.size(); i++) {
+                for (String name : properties.get(i).stringPropertyNames()) {
+                    byProperty.computeIfAbsent(name, k -> new HashMap<>())
+                        .computeIfAbsent(properties.get(i).getProperty(name), k -> new BitSet()).set(i);
+                    byPropertyName.computeIfAbsent(name, k -> new BitSet()).set(i);
+                }
+            }
+        }
+        // The index may outlive the build (persistent cache), so it keeps its own compact copy.
+        final Map<String, String> strings = new HashMap<>();
+        final List<ProjectCoordinates> copies = new ArrayList<>(projects.size());
+        for (ProjectCoordinates p : projects) {
+            copies.add(p.withSharedStrings(strings));
+        }
+        this.projects = Collections.unmodifiableList(copies);
+        for (int i = 0; i < copies.size(); i++) {
+            final ProjectCoordinates p = copies.get(i);
+            byPackaging.computeIfAbsent(String.valueOf(p.getPackaging()), k -> new BitSet()).set(i);
+            byGroupId.computeIfAbsent(String.valueOf(p.getGroupId()), k -> new BitSet()).set(i);
+            if (p.getPath() != null) {
+                paths.add(p.getPath(), i);
+            }
+        }
+        this.all = new BitSet(projects.size());
+        this.all.set(0, projects.size());
+        this.children = new BitSet[projects.size()];
+    }
+
+    /**
+     * Create from MavenProject objects.
+     *
+     * @param mavenProjects the projects in the build order
+     * @return the index
+     */
+    static ReactorIndex of(List<MavenProject> mavenProjects) {
+        return of(mavenProjects, null);
+    }
+
+    /**
+     * Create from MavenProject objects, with the directories relative to the top level project.
+     *
+     * @param mavenProjects   the projects in the build order
+     * @param topLevelBasedir Base directory of the top level project, or null if not known
+     * @return the index
+     */
+    static ReactorIndex of(List<MavenProject> mavenProjects, @Nullable File topLevelBasedir) {
+        final List<ProjectCoordinates> projects = new ArrayList<>(mavenProjects.size());
+        final List<Properties> properties = new ArrayList<>(mavenProjects.size());
+        for (MavenProject mavenProject : mavenProjects) {
+            projects.add(ProjectCoordinates.of(mavenProject, topLevelBasedir));
+            properties.add(mavenProject.getProperties());
+        }
+        final ReactorIndex index = new ReactorIndex(projects, properties);
+        // One pass over the module hierarchy.
+        final Map<String, Integer> positions = index.positionsByKey();
+        for (int i = 0; i < mavenProjects.size(); i++) {
+            final MavenProject mavenProject = mavenProjects.get(i);
+            final MavenProject parent = mavenProject.getParent();
+            if (parent != null) {
+                index.addChild(positions.get(parent.getGroupId() + ':' + parent.getArtifactId()), i);
+            }
+            if (mavenProject.getCollectedProjects() != null) {
+                for (MavenProject module : mavenProject.getCollectedProjects()) {
+                    index.addChild(i, positions.get(module.getGroupId() + ':' + module.getArtifactId()));
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Projects in the build order.
+     *
+     * @return the projects
+     */
+    List<ProjectCoordinates> getProjects() {
+        return projects;
+    }
+
+    /**
+     * Is this the index of these projects, i.e. the same coordinates in the same order?
+     * Used to check an index which was built before the build started.
+     *
+     * @param mavenProjects the projects in the build order
+     * @return true if the same projects
+     */
+    boolean isIndexOf(List<MavenProject> mavenProjects) {
+        if (mavenProjects.size() != projects.size()) {
+            return false;
+        }
+        for (int i = 0; i < projects.size(); i++) {
+            final ProjectCoordinates p = projects.get(i);
+            final MavenProject mavenProject = mavenProjects.get(i);
+            if (!p.getArtifactId().equals(mavenProject.getArtifactId())
+                || !p.getGroupId().equals(mavenProject.getGroupId())
+                || !p.getVersion().equals(mavenProject.getVersion())
+                || !p.getPackaging().equals(mavenProject.getPackaging())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of projects.
+     *
+     * @return the size
+     */
+    int size() {
+        return projects.size();
+    }
+
+    /**
+     * Does any project match with this project name?
+     * Same as {@link DependOnAllProjects#projectsContains(Iterable, String)}.
+     * Attn. No wildcards are supported in projectName.
+     *
+     * @param projectName Project name, e.g. "artifactId", "groupId:artifactId", "groupId:artifactId:packagingType".
+     * @return Boolean
+     */
+    boolean contains(String projectName) {
+        final String[] ids = projectName.split(":");
+        for (ProjectCoordinates p : projects) {
+            if (ids.length == 1 ? ids[0].equals(p.getArtifactId())
+                : ids[0].equals(p.getGroupId()) && ids[1].equals(p.getArtifactId())
+                && (ids.length == 2 || ids[2].equals(p.getPackaging()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The projects the selector needs to be evaluated against.
+     * If the selector has a literal groupId or packaging, only the matching partition.
+     *
+     * @param selector the selector
+     * @return the positions, must not be modified
+     */
+    BitSet candidates(ProjectSelector selector) {
+        BitSet candidates = all;
+        if (selector.getLiteralPackaging() != null) {
+            candidates = byPackaging.getOrDefault(selector.getLiteralPackaging(), new BitSet());
+        }
+        if (selector.getLiteralGroupId() != null) {
+            final BitSet group = byGroupId.getOrDefault(selector.getLiteralGroupId(), new BitSet());
+            if (candidates == all) {
+                candidates = group;
+            } else {
+                candidates = (BitSet) candidates.clone();
+                candidates.and(group);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Select projects with includes and excludes.
+     * A project is selected if it matches any include and no exclude.
+     *
+     * @param includes the include selectors
+     * @param excludes the exclude selectors
+     * @return the positions of the selected projects
+     */
+    BitSet select(List<ProjectSelector> includes, List<ProjectSelector> excludes) {
+        final BitSet selected = matchAny(includes);
+        clearMatching(selected, excludes);
+        return selected;
+    }
+
+    /**
+     * Projects which match any of the selectors.
+     *
+     * @param selectors the selectors
+     * @return the positions
+     */
+    BitSet matchAny(List<ProjectSelector> selectors) {
+        return matchAny(selectors, null);
+    }
+
+    /**
+     * Projects which match any of the selectors, recording the first selector which matched.
+     *
+     * @param selectors    the selectors
+     * @param firstMatches the pattern of the first matching selector by position, filled in; null to not record
+     * @return the positions
+     */
+    BitSet matchAny(List<ProjectSelector> selectors, @Nullable String[] firstMatches) {
+        final BitSet selected = new BitSet(projects.size());
+        for (ProjectSelector selector : selectors) {
+            final BitSet candidates = candidates(selector);
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (!selected.get(i) && selector.matches(projects.get(i))) {
+                    selected.set(i);
+                    if (firstMatches != null) {
+                        firstMatches[i] = selector.getPattern();
+                    }
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Remove the projects which match any of the selectors from the selection.
+     * Only the selected projects are checked.
+     *
+     * @param selected  the selection, modified
+     * @param selectors the selectors
+     */
+    void clearMatching(BitSet selected, List<ProjectSelector> selectors) {
+        clearMatching(selected, selectors, null);
+    }
+
+    /**
+     * Remove the projects which match any of the selectors from the selection,
+     * recording the first selector which matched.
+     *
+     * @param selected     the selection, modified
+     * @param selectors    the selectors
+     * @param firstMatches the pattern of the first matching selector by position, filled in; null to not record
+     */
+    void clearMatching(BitSet selected, List<ProjectSelector> selectors, @Nullable String[] firstMatches) {
+        for (ProjectSelector selector : selectors) {
+            final BitSet candidates = (BitSet) candidates(selector).clone();
+            candidates.and(selected);
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                if (selector.matches(projects.get(i))) {
+                    selected.clear(i);
+                    if (firstMatches != null) {
+                        firstMatches[i] = selector.getPattern();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Projects whose directory matches any of the path patterns.
+     * Projects without a known directory never match.
+     *
+     * @param patterns the patterns, parsed with {@link PathTrie#parse(String)}
+     * @return the positions
+     */
+    BitSet matchPaths(List<List<String>> patterns) {
+        final BitSet selected = new BitSet(projects.size());
+        for (List<String> pattern : patterns) {
+            selected.or(paths.select(pattern));
+        }
+        return selected;
+    }
+
+    /**
+     * Projects which match any of the property selectors.
+     * One lookup per selector, the properties are not read again.
+     *
+     * @param selectors the selectors, "name=value" or "name" for any value
+     * @return the positions
+     */
+    BitSet matchProperties(List<String> selectors) {
+        final BitSet selected = new BitSet(projects.size());
+        for (String selector : selectors) {
+            final String name = propertyName(selector);
+            final int separator = selector.indexOf('=');
+            final BitSet matching = separator < 0
+                ? byPropertyName.get(name)
+                : byProperty.getOrDefault(name, Collections.emptyMap()).get(selector.substring(separator + 1).trim());
+            if (matching != null) {
+                selected.or(matching);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Name of the property in a property selector.
+     *
+     * @param selector the selector, "name=value" or "name"
+     * @return the name, trimmed
+     */
+    static String propertyName(String selector) {
+        final int separator = selector.indexOf('=');
+        return (separator < 0 ? selector : selector.substring(0, separator)).trim();
+    }
+
+    /**
+     * Positions of the projects by "groupId:artifactId".
+     *
+     * @return the positions
+     */
+    Map<String, Integer> positionsByKey() {
+        final Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < projects.size(); i++) {
+            positions.put(projects.get(i).getGroupId() + ':' + projects.get(i).getArtifactId(), i);
+        }
+        return positions;
+    }
+
+    /**
+     * Link a module or a child project to its aggregator or parent.
+     * Only while the index is being built.
+     *
+     * @param parent position of the aggregator or parent, null if not in the build
+     * @param child  position of the module or child project, null if not in the build
+     */
+    void addChild(@Nullable Integer parent, @Nullable Integer child) {
+        if (parent == null || child == null || parent.equals(child)) {
+            return;
+        }
+        if (children[parent] == null) {
+            children[parent] = new BitSet();
+        }
+        children[parent].set(child);
+    }
+
+    /**
+     * The project and all projects below it, as modules of an aggregator or as children of a parent.
+     *
+     * @param position position of the project
+     * @return the positions, must not be modified
+     */
+    BitSet subtree(int position) {
+        final BitSet cached = subtrees.get(position);
+        if (cached != null) {
+            return cached;
+        }
+        final BitSet subtree = new BitSet(projects.size());
+        final Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(position);
+        while (!stack.isEmpty()) {
+            final int p = stack.pop();
+            if (!subtree.get(p)) {
+                subtree.set(p);
+                if (children[p] != null) {
+                    for (int c = children[p].nextSetBit(0); c >= 0; c = children[p].nextSetBit(c + 1)) {
+                        stack.push(c);
+                    }
+                }
+            }
+        }
+        subtrees.putIfAbsent(position, subtree);
+        return subtree;
+    }
+
+    /**
+     * Projects in the subtree of any project which matches any of the selectors.
+     *
+     * @param selectors the selectors of the aggregators or parents
+     * @return the positions
+     */
+    BitSet matchSubtrees(List<ProjectSelector> selectors) {
+        final BitSet roots = matchAny(selectors);
+        final BitSet selected = new BitSet(projects.size());
+        for (int i = roots.nextSetBit(0); i >= 0; i = roots.nextSetBit(i + 1)) {
+            if (!selected.get(i)) {
+                selected.or(subtree(i));
+            }
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,265 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import javax.annotation.Nullable;
+
+import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache which lives as long as the class loader of the rule.
+ * With Maven Daemon (mvnd) the class loader stays alive between builds,
+ * so repeated builds reuse the compiled selectors and the reactor index.
+ * Selectors are keyed by the pattern.
+ * Reactor indexes are keyed by the POM files of the build and their modification times and sizes,
+ * and by the properties of the projects, so a change in any POM file invalidates the index,
+ * as does a change in the properties without a change in the POM files, e.g. another profile or parent.
+ * The cache holds only compact coordinates, no MavenProject objects, and the keys are digests.
+ * Independent of persistence, the index of the current build is memoized per build (session),
+ * keyed weakly by its project dependency graph, so the projects of one build share one index.
+ * The resolved dependency types are memoized per build in the same way.
+ * The index and the compiled selectors prebuilt by {@link PrebuildParticipant} are kept per session,
+ * because Maven builds the project dependency graph again after the participants.
+ */
+final class RuleCache {
+
+    /**
+     * Constant value: Maximum number of cached reactor indexes, e.g. for builds of different subtrees.
+     */
+    private static final int MAX_NUM_REACTORS = 4;
+    /**
+     * Constant value: Maximum number of cached selectors. The cache is cleared when full.
+     */
+    private static final int MAX_NUM_SELECTORS = 10_000;
+    /**
+     * Compiled selectors by pattern.
+     */
+    private static final Map<String, ProjectSelector> SELECTORS = new ConcurrentHashMap<>();
+    /**
+     * Reactor indexes by fingerprint, least recently used first.
+     */
+    private static final Map<String, ReactorIndex> REACTORS =
+        new LinkedHashMap<String, ReactorIndex>(MAX_NUM_REACTORS + 1, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ReactorIndex> eldest) {
+                return size() > MAX_NUM_REACTORS;
+            }
+        };
+
+    /**
+     * Reactor indexes of the running builds: by project dependency graph, then by kind of index.
+     * The graph is a weak key, so the index goes away with the build.
+     */
+    private static final Map<Object, Map<String, ReactorIndex>> SESSIONS = new WeakHashMap<>();
+    /**
+     * Resolution of the dependency types of the running builds, by project dependency graph.
+     */
+    private static final Map<Object, DependencyTypes> SESSION_TYPES = new WeakHashMap<>();
+    /**
+     * Reactor indexes prebuilt before the build started, by session.
+     */
+    private static final Map<Object, ReactorIndex> PREBUILT_INDEXES = new WeakHashMap<>();
+    /**
+     * Selectors compiled before the build started, by session. The maps are not modified after they are put.
+     */
+    private static final Map<Object, Map<String, ProjectSelector>> PREBUILT_SELECTORS = new WeakHashMap<>();
+
+    private RuleCache() {
+    }
+
+    /**
+     * Get the compiled selector for the pattern.
+     *
+     * @param pattern the pattern
+     * @return the selector
+     */
+    static ProjectSelector selector(String pattern) {
+        if (SELECTORS.size() >= MAX_NUM_SELECTORS) {
+            SELECTORS.clear();
+        }
+        return SELECTORS.computeIfAbsent(pattern, ProjectSelector::new);
+    }
+
+    /**
+     * Get the index of the build. Built only if the POM files have changed.
+     *
+     * @param mavenProjects the projects in the build order
+     * @return the index
+     */
+    static ReactorIndex reactorIndex(List<MavenProject> mavenProjects) {
+        return reactorIndex(mavenProjects, null);
+    }
+
+    /**
+     * Get the index of the build, with the directories relative to the top level project.
+     * Built only if the POM files or the top level project have changed.
+     *
+     * @param mavenProjects   the projects in the build order
+     * @param topLevelBasedir Base directory of the top level project, or null if not known
+     * @return the index
+     */
+    static ReactorIndex reactorIndex(List<MavenProject> mavenProjects, @Nullable File topLevelBasedir) {
+        final String fingerprint = (topLevelBasedir == null ? "" : topLevelBasedir.getAbsolutePath())
+            + '\n' + fingerprint(mavenProjects);
+        synchronized (REACTORS) {
+            return REACTORS.computeIfAbsent(fingerprint, k -> ReactorIndex.of(mavenProjects, topLevelBasedir));
+        }
+    }
+
+    /**
+     * Fingerprint of the build: every project, its POM file and its properties, which the index partitions.
+     * A digest, so the cached keys stay small however large the build is.
+     *
+     * @param mavenProjects the projects in the build order
+     * @return the fingerprint, SHA-256 in hex
+     */
+    static String fingerprint(List<MavenProject> mavenProjects) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (MavenProject mavenProject : mavenProjects) {
+            sb.setLength(0);
+            sb.append(mavenProject.getGroupId()).append(':').append(mavenProject.getArtifactId())
+                .append(':').append(mavenProject.getVersion()).append(':').append(mavenProject.getPackaging());
+            final File file = mavenProject.getFile();
+            if (file != null) {
+                sb.append('@').append(file.getAbsolutePath())
+                    .append('@').append(file.lastModified()).append('@').append(file.length());
+            }
+            sb.append('\n');
+            final Properties properties = mavenProject.getProperties();
+            if (properties != null) {
+                for (String name : new TreeSet<>(properties.stringPropertyNames())) {
+                    sb.append(name).append('=').append(properties.getProperty(name)).append('\n');
+                }
+            }
+            digest.update(sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        final StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Get the index memoized for the build.
+     *
+     * @param graph the project dependency graph of the build
+     * @param key   the kind of index, e.g. with or without full reactor
+     * @return the index, or null if not built yet
+     */
+    @Nullable
+    static ReactorIndex sessionReactorIndex(Object graph, String key) {
+        synchronized (SESSIONS) {
+            final Map<String, ReactorIndex> indexes = SESSIONS.get(graph);
+            return indexes == null ? null : indexes.get(key);
+        }
+    }
+
+    /**
+     * Memoize the index for the build.
+     *
+     * @param graph the project dependency graph of the build
+     * @param key   the kind of index, e.g. with or without full reactor
+     * @param index the index
+     */
+    static void putSessionReactorIndex(Object graph, String key, ReactorIndex index) {
+        synchronized (SESSIONS) {
+            SESSIONS.computeIfAbsent(graph, k -> new HashMap<>()).putIfAbsent(key, index);
+        }
+    }
+
+    /**
+     * Get the resolution of the dependency types for the build.
+     * Created once per build, so every type is resolved only once.
+     *
+     * @param graph                  the project dependency graph of the build
+     * @param artifactHandlerManager the artifact handlers of the build
+     * @return the resolution of the types
+     */
+    static DependencyTypes sessionDependencyTypes(Object graph, ArtifactHandlerManager artifactHandlerManager) {
+        synchronized (SESSION_TYPES) {
+            return SESSION_TYPES.computeIfAbsent(graph, k -> new DependencyTypes(artifactHandlerManager));
+        }
+    }
+
+    /**
+     * Keep the index and the selectors prebuilt for the build.
+     *
+     * @param session   the session of the build
+     * @param index     the index
+     * @param selectors the compiled selectors by pattern
+     */
+    static void putPrebuilt(Object session, ReactorIndex index, Map<String, ProjectSelector> selectors) {
+        synchronized (PREBUILT_INDEXES) {
+            PREBUILT_INDEXES.put(session, index);
+            PREBUILT_SELECTORS.put(session, Collections.unmodifiableMap(new HashMap<>(selectors)));
+        }
+    }
+
+    /**
+     * Get the index prebuilt for the build.
+     *
+     * @param session the session of the build
+     * @return the index, or null if not prebuilt
+     */
+    @Nullable
+    static ReactorIndex prebuiltReactorIndex(Object session) {
+        synchronized (PREBUILT_INDEXES) {
+            return PREBUILT_INDEXES.get(session);
+        }
+    }
+
+    /**
+     * Get the selectors prebuilt for the build.
+     *
+     * @param session the session of the build
+     * @return the compiled selectors by pattern, empty if not prebuilt
+     */
+    static Map<String, ProjectSelector> prebuiltSelectors(Object session) {
+        synchronized (PREBUILT_INDEXES) {
+            final Map<String, ProjectSelector> selectors = PREBUILT_SELECTORS.get(session);
+            return selectors == null ? Collections.emptyMap() : selectors;
+        }
+    }
+
+    /**
+     * Empty the cache.
+     */
+    static void clear() {
+        SELECTORS.clear();
+        synchronized (REACTORS) {
+            REACTORS.clear();
+        }
+        synchronized (SESSIONS) {
+            SESSIONS.clear();
+        }
+        synchronized (SESSION_TYPES) {
+            SESSION_TYPES.clear();
+        }
+        synchronized (PREBUILT_INDEXES) {
+            PREBUILT_INDEXES.clear();
+            PREBUILT_SELECTORS.clear();
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A named group of includes and excludes with its own expectations.
+ * Configured as a &lt;selectionSet&gt; element inside &lt;selectionSets&gt;.
+ * Every project selected by the set must be a dependency of the current project,
+ * optionally with the given scope and type.
+ */
+public class SelectionSet {
+
+    /**
+     * Name of the set. Used in reports.
+     */
+    private String name;
+    /**
+     * Include by project [groupId:]artifactId[:packagingType].
+     * Default value: all projects included.
+     */
+    private List<String> includes = new ArrayList<>();
+    /**
+     * Exclude by project [groupId:]artifactId[:packagingType].
+     * Default value: No projects excluded.
+     */
+    private List<String> excludes = new ArrayList<>();
+    /**
+     * Include by directory relative to the top level project, e.g. "services/**".
+     */
+    private List<String> includePaths = new ArrayList<>();
+    /**
+     * Exclude by directory relative to the top level project, e.g. "libs/legacy/**".
+     */
+    private List<String> excludePaths = new ArrayList<>();
+    /**
+     * Include by project property, "name=value" or "name" for any value.
+     */
+    private List<String> includeProperties = new ArrayList<>();
+    /**
+     * Exclude by project property, "name=value" or "name" for any value.
+     */
+    private List<String> excludeProperties = new ArrayList<>();
+    /**
+     * Include all projects below an aggregator or parent project [groupId:]artifactId[:packagingType].
+     */
+    private List<String> includeSubtrees = new ArrayList<>();
+    /**
+     * Exclude all projects below an aggregator or parent project [groupId:]artifactId[:packagingType].
+     */
+    private List<String> excludeSubtrees = new ArrayList<>();
+    /**
+     * Expected scope of the dependency. Default: any scope.
+     */
+    private String scope;
+    /**
+     * Expected type of the dependency. Default: packaging of the project.
+     */
+    private String type;
+
+    /**
+     * Get name.
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Set name.
+     * @param name the name
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get includes.
+     * @return the includes
+     */
+    public List<String> getIncludes() {
+        return includes;
+    }
+
+    /**
+     * Set includes.
+     * @param includes the includes
+     */
+    public void setIncludes(@Nullable List<String> includes) {
+        if (includes == null) {
+            this.includes = new ArrayList<>();
+        } else {
+            this.includes = new ArrayList<>(includes);
+        }
+    }
+
+    /**
+     * Get excludes.
+     * @return the excludes
+     */
+    public List<String> getExcludes() {
+        return excludes;
+    }
+
+    /**
+     * Set excludes.
+     * @param excludes the excludes
+     */
+    public void setExcludes(@Nullable List<String> excludes) {
+        if (excludes == null) {
+            this.excludes = new ArrayList<>();
+        } else {
+            this.excludes = new ArrayList<>(excludes);
+        }
+    }
+
+    /**
+     * Get includePaths.
+     * @return the includePaths
+     */
+    public List<String> getIncludePaths() {
+        return includePaths;
+    }
+
+    /**
+     * Set includePaths.
+     * @param includePaths the includePaths
+     */
+    public void setIncludePaths(@Nullable List<String> includePaths) {
+        if (includePaths == null) {
+            this.includePaths = new ArrayList<>();
+        } else {
+            this.includePaths = new ArrayList<>(includePaths);
+        }
+    }
+
+    /**
+     * Get excludePaths.
+     * @return the excludePaths
+     */
+    public List<String> getExcludePaths() {
+        return excludePaths;
+    }
+
+    /**
+     * Set excludePaths.
+     * @param excludePaths the excludePaths
+     */
+    public void setExcludePaths(@Nullable List<String> excludePaths) {
+        if (excludePaths == null) {
+            this.excludePaths = new ArrayList<>();
+        } else {
+            this.excludePaths = new ArrayList<>(excludePaths);
+        }
+    }
+
+    /**
+     * Get includeProperties.
+     * @return the includeProperties
+     */
+    public List<String> getIncludeProperties() {
+        return includeProperties;
+    }
+
+    /**
+     * Set includeProperties.
+     * @param includeProperties the includeProperties
+     */
+    public void setIncludeProperties(@Nullable List<String> includeProperties) {
+        if (includeProperties == null) {
+            this.includeProperties = new ArrayList<>();
+        } else {
+            this.includeProperties = new ArrayList<>(includeProperties);
+        }
+    }
+
+    /**
+     * Get excludeProperties.
+     * @return the excludeProperties
+     */
+    public List<String> getExcludeProperties() {
+        return excludeProperties;
+    }
+
+    /**
+     * Set excludeProperties.
+     * @param excludeProperties the excludeProperties
+     */
+    public void setExcludeProperties(@Nullable List<String> excludeProperties) {
+        if (excludeProperties == null) {
+            this.excludeProperties = new ArrayList<>();
+        } else {
+            this.excludeProperties = new ArrayList<>(excludeProperties);
+        }
+    }
+
+    /**
+     * Get includeSubtrees.
+     * @return the includeSubtrees
+     */
+    public List<String> getIncludeSubtrees() {
+        return includeSubtrees;
+    }
+
+    /**
+     * Set includeSubtrees.
+     * @param includeSubtrees the includeSubtrees
+     */
+    public void setIncludeSubtrees(@Nullable List<String> includeSubtrees) {
+        if (includeSubtrees == null) {
+            this.includeSubtrees = new ArrayList<>();
+        } else {
+            this.includeSubtrees = new ArrayList<>(includeSubtrees);
+        }
+    }
+
+    /**
+     * Get excludeSubtrees.
+     * @return the excludeSubtrees
+     */
+    public List<String> getExcludeSubtrees() {
+        return excludeSubtrees;
+    }
+
+    /**
+     * Set excludeSubtrees.
+     * @param excludeSubtrees the excludeSubtrees
+     */
+    public void setExcludeSubtrees(@Nullable List<String> excludeSubtrees) {
+        if (excludeSubtrees == null) {
+            this.excludeSubtrees = new ArrayList<>();
+        } else {
+            this.excludeSubtrees = new ArrayList<>(excludeSubtrees);
+        }
+    }
+
+    /**
+     * Get scope.
+     * @return the scope, or null if any scope is accepted
+     */
+    @Nullable
+    public String getScope() {
+        return scope;
+    }
+
+    /**
+     * Set scope.
+     * @param scope the scope
+     */
+    public void setScope(@Nullable String scope) {
+        this.scope = scope;
+    }
+
+    /**
+     * Get type.
+     * @return the type, or null if the packaging of the project is used
+     */
+    @Nullable
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Set type.
+     * @param type the type
+     */
+    public void setType(@Nullable String type) {
+        this.type = type;
+    }
+
+    /**
+     * String representation of the set.
+     *
+     * @return set description
+     */
+    @Override
+    public String toString() {
+        return String.format(
+            "SelectionSet[name=%s;includes=%s;excludes=%s;includePaths=%s;excludePaths=%s;"
+                + "includeProperties=%s;excludeProperties=%s;includeSubtrees=%s;excludeSubtrees=%s;scope=%s;type=%s]",
+            name, includes, excludes, includePaths, excludePaths, includeProperties, excludeProperties,
+            includeSubtrees, excludeSubtrees, scope, type);
+    }
+}
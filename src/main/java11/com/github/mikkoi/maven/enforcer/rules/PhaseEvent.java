@@ -0,0 +1,66 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event of one phase of the rule, e.g. parameter validation or dependency comparison.
+ * Replaces the no-op Java 8 version of this class on Java 11 and later (multi-release JAR).
+ * When the event is not enabled in a recording, begin() and shouldCommit() are cheap
+ * and the fields are never filled in.
+ */
+@Name("com.github.mikkoi.maven.enforcer.rules.DependOnAllProjects.Phase")
+@Label("DependOnAllProjects Phase")
+@Category({"Maven", "Enforcer"})
+@Description("One phase of the Maven Enforcer rule dependOnAllProjects")
+@StackTrace(false)
+class PhaseEvent extends Event {
+
+    @Label("Phase")
+    private final String phase;
+
+    @Label("Project")
+    @Description("The current project, groupId:artifactId")
+    private String project;
+
+    @Label("Reactor Size")
+    @Description("Number of projects in the build")
+    private int reactorSize;
+
+    @Label("Pattern Count")
+    @Description("Number of include and exclude patterns")
+    private int patternCount;
+
+    @Label("Violation Count")
+    @Description("Number of violations found so far")
+    private int violationCount;
+
+    /**
+     * Constructor.
+     *
+     * @param phase name of the phase
+     */
+    PhaseEvent(String phase) {
+        this.phase = phase;
+    }
+
+    /**
+     * Fill in and commit the event.
+     *
+     * @param project        the current project, groupId:artifactId
+     * @param reactorSize    number of projects in the build
+     * @param patternCount   number of include and exclude patterns
+     * @param violationCount number of violations found so far
+     */
+    void commit(String project, int reactorSize, int patternCount, int violationCount) {
+        this.project = project;
+        this.reactorSize = reactorSize;
+        this.patternCount = patternCount;
+        this.violationCount = violationCount;
+        commit();
+    }
+}
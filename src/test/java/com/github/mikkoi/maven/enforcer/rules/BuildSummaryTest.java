@@ -0,0 +1,79 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsRuleTest.createTestLogger;
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsRuleTest.createTestMavenSession;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for BuildSummary and BuildSummarySpy.
+ */
+class BuildSummaryTest {
+
+    /** Projects every execution of the format test evaluates. */
+    private static final int NUM_PROJECTS = 50;
+    /** Duration of the execution in com.acme:libs. */
+    private static final long LIBS_MILLIS = 9;
+    /** Duration of the execution in com.acme:all. */
+    private static final long ALL_MILLIS = 30;
+    /** Duration of the execution in com.acme:services. */
+    private static final long SERVICES_MILLIS = 12;
+    /** Patterns of the execution in com.acme:services. */
+    private static final int SERVICES_PATTERNS = 3;
+
+    @Test
+    void testFormat() {
+        final MavenSession mavenSession = Mockito.mock(MavenSession.class);
+        final MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        Mockito.when(mavenSession.getRequest()).thenReturn(request);
+        BuildSummary.record(mavenSession, "com.acme:libs", TimeUnit.MILLISECONDS.toNanos(LIBS_MILLIS), NUM_PROJECTS, 2, 0);
+        BuildSummary.record(mavenSession, "com.acme:all", TimeUnit.MILLISECONDS.toNanos(ALL_MILLIS), NUM_PROJECTS, 1, 2);
+        BuildSummary.record(mavenSession, "com.acme:services", TimeUnit.MILLISECONDS.toNanos(SERVICES_MILLIS), NUM_PROJECTS, SERVICES_PATTERNS, 0);
+        BuildSummary.record(mavenSession, "com.acme:tools", TimeUnit.MILLISECONDS.toNanos(1), NUM_PROJECTS, 1, 0);
+        assertThat(BuildSummary.format(BuildSummary.records(request)))
+            .isEqualTo("dependOnAllProjects: 4 executions in 52 ms, 200 projects and 7 patterns evaluated,"
+                + " 2 violations. Slowest: com.acme:all 30 ms, com.acme:services 12 ms, com.acme:libs 9 ms");
+    }
+
+    @Test
+    void testRuleRecordsExecutions() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        // Failed executions are recorded, too.
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        assertThatExceptionOfType(EnforcerRuleException.class).isThrownBy(rule::execute);
+        rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setExcludes(Collections.singletonList("test-artifact-*"));
+        rule.execute();
+        final Queue<Map<String, Object>> records = BuildSummary.records(mavenSession.getRequest());
+        assertThat(records).hasSize(2);
+        assertThat(records.peek())
+            .containsEntry(BuildSummary.PROJECT, "com.github.mikkoi:test-artifact")
+            .containsEntry(BuildSummary.PROJECTS, mavenSession.getProjectDependencyGraph().getSortedProjects().size())
+            .containsEntry(BuildSummary.PATTERNS, 1)
+            .containsEntry(BuildSummary.VIOLATIONS, 2);
+
+        // The spy only reads the records at the end of the session.
+        final BuildSummarySpy spy = new BuildSummarySpy();
+        final ExecutionEvent event = Mockito.mock(ExecutionEvent.class);
+        Mockito.when(event.getType()).thenReturn(ExecutionEvent.Type.SessionEnded);
+        Mockito.when(event.getSession()).thenReturn(mavenSession);
+        spy.onEvent(event);
+        spy.onEvent(mavenSession.getRequest());
+        assertThat(BuildSummary.records(mavenSession.getRequest())).hasSize(2);
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for CoverageMatrix.
+ */
+class CoverageMatrixTest {
+
+    /** Aggregators recording at the same time in the concurrency test. */
+    private static final int NUM_CONCURRENT_AGGREGATORS = 32;
+    /** Statuses of the column every aggregator records in the concurrency test. */
+    private static final String[] CONCURRENT_STATUSES = {
+        CoverageMatrix.COVERED, CoverageMatrix.MISSING, CoverageMatrix.NOT_SELECTED};
+    /** Fields in a CSV line: module, aggregator and status. */
+    private static final int NUM_CSV_FIELDS = 3;
+
+    private static Map<String, String> column(String... statuses) {
+        final Map<String, String> column = new LinkedHashMap<>();
+        for (int i = 0; i < statuses.length; i++) {
+            column.put("com.acme:module-" + i, statuses[i]);
+        }
+        return column;
+    }
+
+    @Test
+    void testCsv(@TempDir Path tempDir) throws IOException {
+        final File file = CoverageMatrix.file(tempDir.toFile(), CoverageMatrix.FORMAT_CSV);
+        CoverageMatrix.record(file, CoverageMatrix.FORMAT_CSV, "csv-build-1", "com.acme:agg-a",
+            column(CoverageMatrix.COVERED, CoverageMatrix.MISSING));
+        CoverageMatrix.record(file, CoverageMatrix.FORMAT_CSV, "csv-build-1", "com.acme:agg-b",
+            column(CoverageMatrix.NOT_SELECTED, CoverageMatrix.COVERED));
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)).containsExactly(
+            "# build: csv-build-1",
+            "module,aggregator,status",
+            "com.acme:module-0,com.acme:agg-a,covered",
+            "com.acme:module-1,com.acme:agg-a,missing",
+            "com.acme:module-0,com.acme:agg-b,not-selected",
+            "com.acme:module-1,com.acme:agg-b,covered");
+
+        // Next build starts a new file.
+        CoverageMatrix.record(file, CoverageMatrix.FORMAT_CSV, "csv-build-2", "com.acme:agg-a",
+            column(CoverageMatrix.COVERED));
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)).containsExactly(
+            "# build: csv-build-2",
+            "module,aggregator,status",
+            "com.acme:module-0,com.acme:agg-a,covered");
+    }
+
+    @Test
+    void testCsvBuildIdReadFromFile(@TempDir Path tempDir) throws IOException {
+        // Written by another class realm or JVM in the same build: appended to.
+        final File file = CoverageMatrix.file(tempDir.toFile(), CoverageMatrix.FORMAT_CSV);
+        Files.write(file.toPath(), Arrays.asList(
+            "# build: csv-build-shared",
+            "module,aggregator,status",
+            "com.acme:module-0,com.acme:agg-x,covered"), StandardCharsets.UTF_8);
+        CoverageMatrix.record(file, CoverageMatrix.FORMAT_CSV, "csv-build-shared", "com.acme:agg-a",
+            column(CoverageMatrix.MISSING));
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)).containsExactly(
+            "# build: csv-build-shared",
+            "module,aggregator,status",
+            "com.acme:module-0,com.acme:agg-x,covered",
+            "com.acme:module-0,com.acme:agg-a,missing");
+    }
+
+    @Test
+    void testCsvConcurrentAppends(@TempDir Path tempDir) throws Exception {
+        final File file = CoverageMatrix.file(tempDir.toFile(), CoverageMatrix.FORMAT_CSV);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < NUM_CONCURRENT_AGGREGATORS; i++) {
+                final String aggregator = "com.acme:agg-" + i;
+                futures.add(executor.submit(() -> {
+                    CoverageMatrix.record(file, CoverageMatrix.FORMAT_CSV, "csv-build-concurrent", aggregator,
+                        column(CONCURRENT_STATUSES));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2 + NUM_CONCURRENT_AGGREGATORS * CONCURRENT_STATUSES.length);
+        assertThat(lines.subList(2, lines.size())).allMatch(l -> l.split(",").length == NUM_CSV_FIELDS);
+    }
+
+    @Test
+    void testDot(@TempDir Path tempDir) throws IOException {
+        final File file = CoverageMatrix.file(tempDir.toFile(), CoverageMatrix.FORMAT_DOT);
+        CoverageMatrix.record(file, CoverageMatrix.FORMAT_DOT, "dot-build-1", "com.acme:agg-a",
+            column(CoverageMatrix.MISSING, CoverageMatrix.MISSING, CoverageMatrix.NOT_SELECTED));
+        CoverageMatrix.record(file, CoverageMatrix.FORMAT_DOT, "dot-build-1", "com.acme:agg-b",
+            column(CoverageMatrix.COVERED, CoverageMatrix.MISSING, CoverageMatrix.NOT_SELECTED));
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)).containsExactly(
+            "// build: dot-build-1",
+            "digraph coverage {",
+            "    rankdir=LR;",
+            "    \"com.acme:module-0\" [color=red];",
+            "    \"com.acme:module-1\" [color=red];",
+            "    \"com.acme:module-2\" [color=gray,fontcolor=gray];",
+            "    \"com.acme:agg-a\" [shape=box];",
+            "    \"com.acme:agg-a\" -> \"com.acme:module-0\" [style=dashed,color=red];",
+            "    \"com.acme:agg-a\" -> \"com.acme:module-1\" [style=dashed,color=red];",
+            "    \"com.acme:module-0\" [color=black];",
+            "    \"com.acme:agg-b\" [shape=box];",
+            "    \"com.acme:agg-b\" -> \"com.acme:module-0\";",
+            "    \"com.acme:agg-b\" -> \"com.acme:module-1\" [style=dashed,color=red];",
+            "}");
+
+        // Next build starts a new file.
+        CoverageMatrix.record(file, CoverageMatrix.FORMAT_DOT, "dot-build-2", "com.acme:agg-a",
+            column(CoverageMatrix.COVERED));
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)).containsExactly(
+            "// build: dot-build-2",
+            "digraph coverage {",
+            "    rankdir=LR;",
+            "    \"com.acme:module-0\" [color=black];",
+            "    \"com.acme:agg-a\" [shape=box];",
+            "    \"com.acme:agg-a\" -> \"com.acme:module-0\";",
+            "}");
+    }
+
+    @Test
+    void testDotChangedByAnotherWriter(@TempDir Path tempDir) throws IOException {
+        final File file = CoverageMatrix.file(tempDir.toFile(), CoverageMatrix.FORMAT_DOT);
+        CoverageMatrix.record(file, CoverageMatrix.FORMAT_DOT, "dot-build-shared", "com.acme:agg-a",
+            column(CoverageMatrix.MISSING, CoverageMatrix.NOT_SELECTED));
+        // Another class realm or JVM in the same build covers module-0.
+        final List<String> lines = new ArrayList<>(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+        lines.addAll(lines.size() - 1, Arrays.asList(
+            "    \"com.acme:module-0\" [color=black];",
+            "    \"com.acme:agg-x\" [shape=box];",
+            "    \"com.acme:agg-x\" -> \"com.acme:module-0\";"));
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+
+        CoverageMatrix.record(file, CoverageMatrix.FORMAT_DOT, "dot-build-shared", "com.acme:agg-b",
+            column(CoverageMatrix.MISSING, CoverageMatrix.MISSING));
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)).containsExactly(
+            "// build: dot-build-shared",
+            "digraph coverage {",
+            "    rankdir=LR;",
+            "    \"com.acme:module-0\" [color=red];",
+            "    \"com.acme:module-1\" [color=gray,fontcolor=gray];",
+            "    \"com.acme:agg-a\" [shape=box];",
+            "    \"com.acme:agg-a\" -> \"com.acme:module-0\" [style=dashed,color=red];",
+            "    \"com.acme:module-0\" [color=black];",
+            "    \"com.acme:agg-x\" [shape=box];",
+            "    \"com.acme:agg-x\" -> \"com.acme:module-0\";",
+            "    \"com.acme:module-1\" [color=red];",
+            "    \"com.acme:agg-b\" [shape=box];",
+            "    \"com.acme:agg-b\" -> \"com.acme:module-0\" [style=dashed,color=red];",
+            "    \"com.acme:agg-b\" -> \"com.acme:module-1\" [style=dashed,color=red];",
+            "}");
+    }
+}
@@ -0,0 +1,207 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.apache.maven.enforcer.rule.api.EnforcerLogger;
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Allocation regression tests for DependOnAllProjects rule.
+ * Measures the bytes allocated by one execution of the rule per project in a synthetic build
+ * with the allocation counter of the current thread.
+ * The test fails when the allocation goes over the committed budget.
+ * If a change needs more, raise the budget in the same commit and explain why.
+ */
+class DependOnAllProjectsAllocationTest {
+
+    /**
+     * Committed budget: bytes allocated per project in the build, by one execution.
+     * Includes the indexing of the build, which the first execution in every build does (about 1,700 bytes).
+     */
+    private static final long BYTES_PER_PROJECT_BUDGET = 2_048;
+    /**
+     * Number of projects in the synthetic build.
+     */
+    private static final int NUM_PROJECTS = 2_000;
+    /**
+     * Executions before measuring, so that class loading and JIT do not count.
+     */
+    private static final int NUM_WARMUP_EXECUTIONS = 20;
+    /**
+     * Number of groupIds the projects are spread over.
+     */
+    private static final int NUM_GROUPS = 10;
+    /**
+     * Every this many projects has packaging war, the rest jar.
+     */
+    private static final int WAR_INTERVAL = 3;
+
+    /**
+     * Logger which logs nothing and has debug disabled, like a normal build.
+     * A Mockito mock would record every call and allocate on its own.
+     *
+     * @return the logger
+     */
+    static EnforcerLogger createSilentLogger() {
+        return new EnforcerLogger() {
+            @Override
+            public void warnOrError(CharSequence message) {
+            }
+
+            @Override
+            public void warnOrError(Supplier<CharSequence> messageSupplier) {
+            }
+
+            @Override
+            public boolean isDebugEnabled() {
+                return false;
+            }
+
+            @Override
+            public void debug(CharSequence message) {
+            }
+
+            @Override
+            public void debug(Supplier<CharSequence> messageSupplier) {
+            }
+
+            @Override
+            public boolean isInfoEnabled() {
+                return false;
+            }
+
+            @Override
+            public void info(CharSequence message) {
+            }
+
+            @Override
+            public void info(Supplier<CharSequence> messageSupplier) {
+            }
+
+            @Override
+            public boolean isWarnEnabled() {
+                return true;
+            }
+
+            @Override
+            public void warn(CharSequence message) {
+            }
+
+            @Override
+            public void warn(Supplier<CharSequence> messageSupplier) {
+            }
+
+            @Override
+            public boolean isErrorEnabled() {
+                return true;
+            }
+
+            @Override
+            public void error(CharSequence message) {
+            }
+
+            @Override
+            public void error(Supplier<CharSequence> messageSupplier) {
+            }
+        };
+    }
+
+    /**
+     * Bytes allocated so far by the current thread.
+     *
+     * @return the bytes, or -1 if not supported by the JVM
+     */
+    private static long allocatedBytes() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Build with an aggregator which depends on all other projects.
+     *
+     * @return the session, the aggregator is the current project
+     */
+    private static MavenSession createSyntheticBuild() {
+        final List<MavenProject> projects = new ArrayList<>();
+        final List<Dependency> dependencies = new ArrayList<>();
+        for (int i = 0; i < NUM_PROJECTS; i++) {
+            final String groupId = "com.acme.group" + (i % NUM_GROUPS);
+            final String packaging = i % WAR_INTERVAL == 0 ? "war" : "jar";
+            projects.add(DependOnAllProjectsRuleTest.createTestMavenProjectWithDependencies(
+                groupId, "module-" + i, "1.0.0", packaging, new ArrayList<>()));
+            dependencies.add(DependOnAllProjectsRuleTest.createDependency(groupId, "module-" + i, "1.0.0", packaging,
+                null));
+        }
+        final MavenProject aggregator = DependOnAllProjectsRuleTest.createTestMavenProjectWithDependencies(
+            "com.acme", "aggregator", "1.0.0", "pom", dependencies);
+        projects.add(aggregator);
+        final MavenSession mavenSession = DependOnAllProjectsRuleTest.createTestMavenSession();
+        mavenSession.setProjectDependencyGraph(DependOnAllProjectsRuleTest.createTestProjectDependencyGraph(projects));
+        mavenSession.setCurrentProject(aggregator);
+        return mavenSession;
+    }
+
+    /**
+     * Bytes allocated by one execution of the rule per project, after the warmup executions.
+     * The index of the build is memoized per session, so the cache is cleared before every execution:
+     * the measured execution indexes the build like the first execution in a real build.
+     *
+     * @param rule the rule
+     * @return the bytes per project
+     * @throws EnforcerRuleException if the rule fails
+     */
+    private static long bytesPerProject(DependOnAllProjects rule) throws EnforcerRuleException {
+        for (int i = 0; i < NUM_WARMUP_EXECUTIONS; i++) {
+            RuleCache.clear();
+            rule.execute();
+        }
+        RuleCache.clear();
+        final long before = allocatedBytes();
+        rule.execute();
+        final long after = allocatedBytes();
+        return (after - before) / NUM_PROJECTS;
+    }
+
+    @Test
+    void testAllocationPerProject() throws EnforcerRuleException {
+        assumeTrue(allocatedBytes() >= 0, "Thread allocation counter not supported by this JVM");
+        final DependOnAllProjects rule = new DependOnAllProjects(createSyntheticBuild());
+        rule.setLog(createSilentLogger());
+        final long bytes = bytesPerProject(rule);
+        assertThat(bytes).as("Bytes allocated per project").isLessThanOrEqualTo(BYTES_PER_PROJECT_BUDGET);
+    }
+
+    @Test
+    void testAllocationPerProjectWithPatterns() throws EnforcerRuleException {
+        assumeTrue(allocatedBytes() >= 0, "Thread allocation counter not supported by this JVM");
+        final DependOnAllProjects rule = new DependOnAllProjects(createSyntheticBuild());
+        rule.setLog(createSilentLogger());
+        final List<String> includes = new ArrayList<>();
+        includes.add("com.acme.group1:*");
+        includes.add("*:module-1*:jar");
+        includes.add("*:*:war");
+        rule.setIncludes(includes);
+        final List<String> excludes = new ArrayList<>();
+        excludes.add("com.acme.group3:*:war");
+        rule.setExcludes(excludes);
+        final long bytes = bytesPerProject(rule);
+        assertThat(bytes).as("Bytes allocated per project").isLessThanOrEqualTo(BYTES_PER_PROJECT_BUDGET);
+    }
+}
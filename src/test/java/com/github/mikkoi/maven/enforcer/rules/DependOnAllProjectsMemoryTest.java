@@ -0,0 +1,141 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory regression test for DependOnAllProjects rule.
+ * A synthetic build of 50,000 projects is checked in a separate JVM with a small fixed heap.
+ * The JVM also measures the heap the rule retains after the execution, i.e. the index of the build,
+ * and the test fails if it goes over the documented ceiling per project.
+ */
+class DependOnAllProjectsMemoryTest {
+
+    /**
+     * Number of projects in the synthetic build.
+     */
+    private static final int NUM_PROJECTS = 50_000;
+    /**
+     * Number of groupIds the projects are spread over.
+     */
+    private static final int NUM_GROUPS = 100;
+    /**
+     * Number of garbage collections before the heap is measured.
+     */
+    private static final int GC_ROUNDS = 5;
+    /**
+     * Pause after every garbage collection, in milliseconds.
+     */
+    private static final long GC_PAUSE_MILLIS = 20;
+    /**
+     * Fixed heap of the JVM which runs the check. The synthetic build itself takes most of it.
+     */
+    private static final String MAX_HEAP = "-Xmx128m";
+    /**
+     * Committed ceiling: bytes retained per project in the build after the execution.
+     */
+    private static final long RETAINED_BYTES_PER_PROJECT_CEILING = 512;
+    /**
+     * Keeps the rule and the build reachable until the heap is measured.
+     * Only written: a static field is a garbage collection root, so what it refers to is not collected.
+     */
+    @SuppressWarnings("PMD.UnusedPrivateField")
+    private static volatile Object keepAlive;
+
+    private static long usedHeap() throws InterruptedException {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(GC_PAUSE_MILLIS);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Check a synthetic build. Run in the JVM with the fixed heap.
+     * Writes the retained bytes per project to the file given as the argument.
+     *
+     * @param args the file for the retained bytes per project
+     * @throws Exception if the check fails
+     */
+    public static void main(String[] args) throws Exception {
+        final List<MavenProject> projects = new ArrayList<>(NUM_PROJECTS + 1);
+        final List<Dependency> dependencies = new ArrayList<>(NUM_PROJECTS);
+        for (int i = 0; i < NUM_PROJECTS; i++) {
+            final String groupId = "com.acme.group" + (i % NUM_GROUPS);
+            final MavenProject project = DependOnAllProjectsRuleTest.createTestMavenProjectWithDependencies(
+                groupId, "module-" + i, "1.0.0", "jar", new ArrayList<>());
+            // Like in a real build, the model has its properties before the rule runs.
+            project.getProperties();
+            projects.add(project);
+            dependencies.add(DependOnAllProjectsRuleTest.createDependency(groupId, "module-" + i, "1.0.0", "jar", null));
+        }
+        final MavenProject aggregator = DependOnAllProjectsRuleTest.createTestMavenProjectWithDependencies(
+            "com.acme", "aggregator", "1.0.0", "pom", dependencies);
+        projects.add(aggregator);
+        @SuppressWarnings("deprecation")
+        final MavenSession mavenSession = new MavenSession(null, new DefaultMavenExecutionRequest(),
+            new DefaultMavenExecutionResult(), projects);
+        mavenSession.setProjectDependencyGraph(DependOnAllProjectsRuleTest.createTestProjectDependencyGraph(projects));
+        mavenSession.setCurrentProject(aggregator);
+
+        final long before = usedHeap();
+        final DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(DependOnAllProjectsAllocationTest.createSilentLogger());
+        rule.execute();
+        // One project is missing: the rule must fail, and the report must fit, too.
+        // The first project is the top level project, which is not checked.
+        aggregator.getDependencies().remove(1);
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("is missing dependency 'com.acme.group1:module-1:jar'");
+        keepAlive = Arrays.asList(rule, projects);
+        final long retained = (usedHeap() - before) / NUM_PROJECTS;
+        keepAlive = null;
+        Files.write(Paths.get(args[0]), String.valueOf(retained).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLargeBuildInFixedHeap(@TempDir Path tempDir) throws IOException, InterruptedException {
+        final String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        final Path output = tempDir.resolve("output.txt");
+        final Path result = tempDir.resolve("retained.txt");
+        // The output goes to a file, so the child never blocks on a full pipe and the timeout applies.
+        final Process process = new ProcessBuilder(Arrays.asList(java, MAX_HEAP,
+            "-cp", System.getProperty("java.class.path"), DependOnAllProjectsMemoryTest.class.getName(),
+            result.toString()))
+            .redirectErrorStream(true)
+            .redirectOutput(output.toFile())
+            .start();
+        final boolean finished = process.waitFor(5, TimeUnit.MINUTES);
+        if (!finished) {
+            process.destroyForcibly().waitFor();
+        }
+        final String log = new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+        assertThat(finished).as("Finished in time: %s", log).isTrue();
+        assertThat(process.exitValue()).as(log).isZero();
+        final long retained = Long.parseLong(new String(Files.readAllBytes(result), StandardCharsets.UTF_8));
+        assertThat(retained).as("Retained bytes per project: %d", retained)
+            .isLessThanOrEqualTo(RETAINED_BYTES_PER_PROJECT_CEILING);
+    }
+}
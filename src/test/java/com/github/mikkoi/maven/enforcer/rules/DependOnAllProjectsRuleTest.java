@@ -20,10 +20,21 @@ import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenExecutionResult;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Dependency;
+import org.apache.maven.model.DependencyManagement;
+import org.apache.maven.model.InputLocation;
+import org.apache.maven.model.InputSource;
 import org.apache.maven.model.Model;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -284,4 +295,645 @@ class DependOnAllProjectsRuleTest {
         assertThatNoException().isThrownBy(rule::execute);
 
     }
+
+    public static SelectionSet createSelectionSet(String name, List<String> includes, String scope, String type) {
+        final SelectionSet set = new SelectionSet();
+        set.setName(name);
+        set.setIncludes(includes);
+        set.setScope(scope);
+        set.setType(type);
+        return set;
+    }
+
+    @Test
+    void testSelectionSets() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final List<Dependency> projZDependencies = new ArrayList<>();
+        projZDependencies.add(createDependency("com.github.mikkoi", "proj-a", "1.0.0", "jar", null));
+        projZDependencies.add(createDependency("com.github.mikkoi", "proj-b", "1.0.0", "test-jar", "test"));
+        final MavenProject mavenProjectZ = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-z", "1.0.0", "pom", projZDependencies
+        );
+        final List<MavenProject> projects = new ArrayList<>();
+        projects.add(createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-a", "1.0.0", "jar", new ArrayList<>()));
+        projects.add(createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-b", "1.0.0", "jar", new ArrayList<>()));
+        projects.add(mavenProjectZ);
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(projects));
+        mavenSession.setCurrentProject(mavenProjectZ);
+
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        final List<SelectionSet> sets = new ArrayList<>();
+        sets.add(createSelectionSet("tests", Collections.singletonList("proj-b"), "test", "test-jar"));
+        sets.add(createSelectionSet("others", null, "compile", null));
+        rule.setSelectionSets(sets);
+        assertThatNoException().isThrownBy(rule::execute);
+        rule.setPersistentCache("true");
+        assertThatNoException().isThrownBy(rule::execute);
+        rule.setPersistentCache("yes");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'persistentCache'. Must be 'true' or 'false': 'yes'");
+        rule.setPersistentCache(null);
+
+        sets.set(0, createSelectionSet("tests", Collections.singletonList("proj-b"), "provided", "test-jar"));
+        rule.setSelectionSets(sets);
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("Project 'com.github.mikkoi:proj-z' has dependency 'com.github.mikkoi:proj-b:test-jar'"
+                + " with scope 'test', expected scope 'provided'. (selection set 'tests')");
+
+        sets.remove(0);
+        rule.setSelectionSets(sets);
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("Project 'com.github.mikkoi:proj-z' is missing dependency 'com.github.mikkoi:proj-b:jar'. (selection set 'others')")
+            .withMessageNotContaining("proj-a");
+
+        rule.setIncludes(Collections.singletonList("proj-a"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'selectionSets'. "
+                + "Cannot be used together with parameters 'includes', 'excludes', 'includePaths', 'excludePaths', "
+                + "'includeProperties', 'excludeProperties', 'includeSubtrees' and 'excludeSubtrees'");
+
+        rule.setIncludes(null);
+        sets.add(createSelectionSet(" ", null, null, null));
+        rule.setSelectionSets(sets);
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'selectionSets'. Selection set #2 has no name");
+
+        sets.set(1, createSelectionSet("others", null, null, null));
+        rule.setSelectionSets(sets);
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'selectionSets'. Selection set name 'others' is not unique");
+
+        sets.set(1, createSelectionSet("bad", null, "import", null));
+        rule.setSelectionSets(sets);
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageStartingWith("Failure in parameter 'selectionSets[bad].scope'.");
+    }
+
+    @Test
+    void testTargetDependencyManagement() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final Dependency managedA = createDependency("com.github.mikkoi", "proj-a", "1.0.0", "jar", null);
+        final Dependency importedB = createDependency("com.github.mikkoi", "proj-b", "1.0.0", "jar", null);
+        final InputSource bomSource = new InputSource();
+        bomSource.setModelId("com.github.mikkoi:other-bom:1.0.0");
+        importedB.setLocation("", new InputLocation(1, 1, bomSource));
+        final MavenProject mavenProjectBom = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-bom", "1.0.0", "pom", new ArrayList<>()
+        );
+        final DependencyManagement dependencyManagement = new DependencyManagement();
+        dependencyManagement.addDependency(managedA);
+        dependencyManagement.addDependency(importedB);
+        mavenProjectBom.getModel().setDependencyManagement(dependencyManagement);
+
+        final List<MavenProject> projects = new ArrayList<>();
+        projects.add(createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-a", "1.0.0", "jar", new ArrayList<>()));
+        projects.add(createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-b", "1.0.0", "jar", new ArrayList<>()));
+        projects.add(mavenProjectBom);
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(projects));
+        mavenSession.setCurrentProject(mavenProjectBom);
+
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("Project 'com.github.mikkoi:proj-bom' is missing dependency 'com.github.mikkoi:proj-a:jar'.");
+
+        rule.setTarget("dependencyManagement");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("Project 'com.github.mikkoi:proj-bom' is missing dependency 'com.github.mikkoi:proj-b:jar'.")
+            .withMessageNotContaining("proj-a:jar");
+
+        rule.setIncludeImportedDependencyManagement("true");
+        assertThatNoException().isThrownBy(rule::execute);
+
+        rule.setCoverageMatrix("svg");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'coverageMatrix'. Must be 'none', 'csv' or 'dot': 'svg'");
+        rule.setCoverageMatrix(null);
+
+        rule.setTarget("dependencyManagements");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'target'. Must be 'dependencies' or 'dependencyManagement': 'dependencyManagements'");
+    }
+
+    @Test
+    void testFullReactor(@TempDir Path tempDir) throws EnforcerRuleException, IOException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject topLevelProject = mavenSession.getTopLevelProject();
+        final Path pom = tempDir.resolve("pom.xml");
+        Files.write(pom, ("<project><groupId>com.github.mikkoi</groupId><artifactId>test-artifact</artifactId>"
+            + "<version>1.0.0-SNAPSHOT</version><modules><module>proj-b</module></modules></project>")
+            .getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(tempDir.resolve("proj-b"));
+        Files.write(tempDir.resolve("proj-b").resolve("pom.xml"), ("<project><parent><groupId>com.github.mikkoi</groupId>"
+            + "<artifactId>test-artifact</artifactId><version>1.0.0-SNAPSHOT</version></parent>"
+            + "<artifactId>proj-b</artifactId></project>").getBytes(StandardCharsets.UTF_8));
+        topLevelProject.setFile(pom.toFile());
+        // Partial build (-pl): only the top level project is in the build.
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(
+            Collections.singletonList(topLevelProject)));
+        mavenSession.setCurrentProject(topLevelProject);
+
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        assertThatNoException().isThrownBy(rule::execute);
+
+        rule.setFullReactor("true");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("Project 'com.github.mikkoi:test-artifact' is missing dependency 'com.github.mikkoi:proj-b:jar'.");
+
+        rule.setFullReactor("yes");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'fullReactor'. Must be 'true' or 'false': 'yes'");
+    }
+
+    @Test
+    void testTimeBudget() {
+        final MavenSession mavenSession = createTestMavenSession();
+        mavenSession.setCurrentProject(mavenSession.getTopLevelProject());
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setExcludes(Collections.singletonList("*"));
+        rule.setTimeBudget("60000");
+        rule.setTimeBudgetAction("fail");
+        assertThatNoException().isThrownBy(rule::execute);
+        rule.setTimeBudget("-1");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'timeBudget'. Must be a number of milliseconds, zero or more: '-1'");
+        rule.setTimeBudget("1000");
+        rule.setTimeBudgetAction("error");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'timeBudgetAction'. Must be 'warn' or 'fail': 'error'");
+    }
+
+    @Test
+    void testIncludePaths() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final File root = new File("build-root").getAbsoluteFile();
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom",
+            Collections.singletonList(createDependency("com.github.mikkoi", "billing", "1.0.0", "jar", null)));
+        aggregator.setFile(new File(root, "pom.xml"));
+        final String[][] modules = {{"billing", "services/billing"}, {"orders", "services/orders"},
+            {"old", "libs/legacy/old"}, {"common", "libs/common"}};
+        final List<MavenProject> projects = new ArrayList<>();
+        projects.add(aggregator);
+        for (String[] module : modules) {
+            final MavenProject project = createTestMavenProjectWithDependencies(
+                "com.github.mikkoi", module[0], "1.0.0", "jar", new ArrayList<>());
+            project.setFile(new File(new File(root, module[1]), "pom.xml"));
+            projects.add(project);
+        }
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(projects));
+        mavenSession.setCurrentProject(aggregator);
+        final MavenProject topLevelProject = mavenSession.getTopLevelProject();
+        topLevelProject.setFile(new File(root, "pom.xml"));
+
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setIncludePaths(Collections.singletonList("services/**"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("Project 'com.github.mikkoi:aggregator' is missing dependency 'com.github.mikkoi:orders:jar'.")
+            .withMessageNotContaining("billing:jar")
+            .withMessageNotContaining("common:jar");
+
+        rule.setExcludePaths(Collections.singletonList("services/orders"));
+        assertThatNoException().isThrownBy(rule::execute);
+
+        // Includes by name and by path are combined.
+        rule.setIncludes(Collections.singletonList("common"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("is missing dependency 'com.github.mikkoi:common:jar'.")
+            .withMessageNotContaining("old:jar");
+
+        rule.setExcludePaths(Collections.singletonList("services/**/api"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'excludePaths'. Invalid path 'services/**/api': '**' must be the last directory name");
+    }
+
+    @Test
+    void testIncludeProperties() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom", new ArrayList<>());
+        final MavenProject optOut = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "opt-out", "1.0.0", "jar", new ArrayList<>());
+        optOut.getProperties().setProperty("aggregate", "false");
+        final MavenProject service = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "service", "1.0.0", "jar", new ArrayList<>());
+        service.getProperties().setProperty("aggregate", "true");
+        service.getProperties().setProperty("service.name", "billing");
+        final List<MavenProject> projects = new ArrayList<>();
+        projects.add(optOut);
+        projects.add(service);
+        projects.add(aggregator);
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(projects));
+        mavenSession.setCurrentProject(aggregator);
+
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setExcludeProperties(Collections.singletonList("aggregate=false"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("Project 'com.github.mikkoi:aggregator' is missing dependency 'com.github.mikkoi:service:jar'.")
+            .withMessageNotContaining("opt-out:jar");
+
+        // Without includes, only the projects included by property are selected.
+        rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setIncludeProperties(Collections.singletonList(" service.name "));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("is missing dependency 'com.github.mikkoi:service:jar'.")
+            .withMessageNotContaining("opt-out:jar");
+
+        rule.setIncludeProperties(Collections.singletonList("service.name=orders"));
+        assertThatNoException().isThrownBy(rule::execute);
+
+        rule.setIncludeProperties(Collections.singletonList("=true"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'includeProperties'. Property name is empty: '=true'");
+    }
+
+    @Test
+    void testExcludeSubtrees() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom", new ArrayList<>());
+        final MavenProject examples = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "examples", "1.0.0", "pom", new ArrayList<>());
+        final MavenProject exampleA = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "hello-world", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject exampleB = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "demo", "1.0.0", "jar", new ArrayList<>());
+        // Child of an example by parent link, not a module of examples.
+        final MavenProject exampleChild = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "demo-plugin", "1.0.0", "jar", new ArrayList<>());
+        exampleChild.setParent(exampleB);
+        examples.setCollectedProjects(Arrays.asList(exampleA, exampleB));
+        final MavenProject library = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "library", "1.0.0", "jar", new ArrayList<>());
+        final List<MavenProject> projects = Arrays.asList(
+            examples, exampleA, exampleB, exampleChild, library, aggregator);
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(projects));
+        mavenSession.setCurrentProject(aggregator);
+
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setExcludeSubtrees(Collections.singletonList("examples"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageStartingWith("Project 'com.github.mikkoi:aggregator' is missing dependency 'com.github.mikkoi:library:jar'.\n"
+                + "Missing definitions");
+
+        rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setIncludeSubtrees(Collections.singletonList("demo"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageStartingWith("Project 'com.github.mikkoi:aggregator' is missing dependency 'com.github.mikkoi:demo:jar'.\n"
+                + "Project 'com.github.mikkoi:aggregator' is missing dependency 'com.github.mikkoi:demo-plugin:jar'.\n"
+                + "Missing definitions");
+    }
+
+    @Test
+    void testArtifactHandlers() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject plugin = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "my-plugin", "1.0.0", "maven-plugin", new ArrayList<>());
+        final MavenProject bundle = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "my-bundle", "1.0.0", "bundle", new ArrayList<>());
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom",
+            Collections.singletonList(createDependency("com.github.mikkoi", "my-plugin", "1.0.0", "jar", null)));
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(
+            Arrays.asList(plugin, bundle, aggregator)));
+        mavenSession.setCurrentProject(aggregator);
+
+        // Raw packaging: neither module matches a dependency of type jar.
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("is missing dependency 'com.github.mikkoi:my-plugin:maven-plugin'.")
+            .withMessageContaining("<type>bundle</type>");
+
+        // Resolved with the artifact handlers: the plugin is found and the bundle is reported as a jar.
+        rule = new DependOnAllProjects(mavenSession, DependencyTypesTest.createTestArtifactHandlerManager());
+        rule.setLog(createTestLogger());
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageStartingWith("Project 'com.github.mikkoi:aggregator' is missing dependency 'com.github.mikkoi:my-bundle:jar'.\n"
+                + "Missing definitions")
+            .withMessageNotContaining("my-plugin")
+            .withMessageNotContaining("<type>");
+    }
+
+    @Test
+    void testExplain(@TempDir Path tempDir) throws EnforcerRuleException, IOException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject projA = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-a", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject projB = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-b", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject projC = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-c", "1.0.0", "war", new ArrayList<>());
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom",
+            Collections.singletonList(createDependency("com.github.mikkoi", "proj-c", "1.0.0", "war", null)));
+        aggregator.setFile(tempDir.resolve("pom.xml").toFile());
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(
+            Arrays.asList(projA, projB, projC, aggregator)));
+        mavenSession.setCurrentProject(aggregator);
+
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setExcludes(Arrays.asList("*-b", "proj-b"));
+        rule.setExplain("true");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageStartingWith("Project 'com.github.mikkoi:aggregator' is missing dependency 'com.github.mikkoi:proj-a:jar'.\n"
+                + "Missing definitions");
+        final List<String> lines = Files.readAllLines(
+            tempDir.resolve("target").resolve(ExplainTable.FILE_NAME), StandardCharsets.UTF_8);
+        final List<List<String>> rows = new ArrayList<>();
+        for (String line : lines) {
+            rows.add(Arrays.asList(line.split(" +")));
+        }
+        assertThat(rows).containsExactly(
+            Arrays.asList("project", "include", "exclude", "result"),
+            Arrays.asList("com.github.mikkoi:proj-a:jar", "*", "-", "missing"),
+            Arrays.asList("com.github.mikkoi:proj-b:jar", "*", "*-b", "not-selected"),
+            Arrays.asList("com.github.mikkoi:proj-c:war", "*", "-", "covered"),
+            Arrays.asList("com.github.mikkoi:aggregator:pom", "*", "-", "skipped"));
+
+        rule.setExplain("maybe");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'explain'. Must be 'true' or 'false': 'maybe'");
+    }
+
+    @Test
+    void testFailFastAndMaxViolations() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom", new ArrayList<>());
+        final List<MavenProject> projects = new ArrayList<>();
+        projects.add(aggregator);
+        for (String artifactId : Arrays.asList("proj-a", "proj-b", "proj-c")) {
+            projects.add(createTestMavenProjectWithDependencies(
+                "com.github.mikkoi", artifactId, "1.0.0", "jar", new ArrayList<>()));
+        }
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(projects));
+        mavenSession.setCurrentProject(aggregator);
+
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setFailFast("true");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageStartingWith("Project 'com.github.mikkoi:aggregator' is missing dependency 'com.github.mikkoi:proj-a:jar'.\n"
+                + "Stopped after 1 violation(s) (failFast), the rest of the build is not checked.\n"
+                + "Missing definitions")
+            .withMessageNotContaining("proj-b");
+
+        rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setMaxViolations("2");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("proj-b")
+            .withMessageContaining("Stopped after 2 violation(s) (maxViolations), the rest of the build is not checked.")
+            .withMessageNotContaining("proj-c");
+
+        // The limit is reached at the last project: nothing is left unchecked.
+        rule.setMaxViolations("3");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessageContaining("proj-c")
+            .withMessageNotContaining("Stopped");
+
+        rule.setMaxViolations("-1");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'maxViolations'. Must be a number, zero or more: '-1'");
+    }
+
+    @Test
+    void testDuplicateDependencies() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject projA = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-a", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject projB = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-b", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom", Arrays.asList(
+                createDependency("com.github.mikkoi", "proj-a", "1.0.0", "jar", null),
+                createDependency("com.github.mikkoi", "proj-b", "1.0.0", "jar", null),
+                createDependency("com.github.mikkoi", "proj-a", "1.0.0", "jar", "test"),
+                createDependency("com.github.mikkoi", "proj-b", "0.9.0", "jar", null),
+                createDependency("org.external", "lib", "1.0.0", "jar", null),
+                createDependency("org.external", "lib", "2.0.0", "jar", null)));
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(
+            Arrays.asList(projA, projB, aggregator)));
+        mavenSession.setCurrentProject(aggregator);
+
+        // Warnings by default. Dependencies on projects outside the build are not checked.
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        final EnforcerLogger log = createTestLogger();
+        rule.setLog(log);
+        assertThatNoException().isThrownBy(rule::execute);
+        Mockito.verify(log).warn("Project 'com.github.mikkoi:aggregator' declares dependency"
+            + " 'com.github.mikkoi:proj-a:jar' version '1.0.0' 2 times: jar (compile), jar (test).");
+        Mockito.verify(log).warn("Project 'com.github.mikkoi:aggregator' declares dependency"
+            + " 'com.github.mikkoi:proj-b:jar' with conflicting versions: 1.0.0, 0.9.0.");
+        Mockito.verify(log, Mockito.never()).warn(Mockito.contains("org.external"));
+
+        rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setErrorIfDuplicateDependency("true");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Project 'com.github.mikkoi:aggregator' declares dependency"
+                + " 'com.github.mikkoi:proj-a:jar' version '1.0.0' 2 times: jar (compile), jar (test).\n"
+                + "Project 'com.github.mikkoi:aggregator' declares dependency"
+                + " 'com.github.mikkoi:proj-b:jar' with conflicting versions: 1.0.0, 0.9.0.");
+    }
+
+    @Test
+    void testGenerate(@TempDir Path tempDir) throws EnforcerRuleException, IOException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject projA = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-a", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject projB = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-b", "1.0.0", "war", new ArrayList<>());
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom", new ArrayList<>());
+        aggregator.setFile(tempDir.resolve("pom.xml").toFile());
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(
+            Arrays.asList(projB, projA, aggregator)));
+        mavenSession.setCurrentProject(aggregator);
+
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setFailFast("true");
+        rule.setGenerate("dependencies");
+        assertThatNoException().isThrownBy(rule::execute);
+        assertThat(Files.readAllLines(tempDir.resolve("target").resolve("dependOnAllProjects-dependencies.xml"),
+            StandardCharsets.UTF_8)).containsSubsequence(
+            "<dependencies>",
+            "        <artifactId>proj-b</artifactId>",
+            "        <type>war</type>",
+            "        <artifactId>proj-a</artifactId>",
+            "</dependencies>");
+        // The missing dependencies are replaced by the generated file, so they are not violations.
+        assertThat(BuildSummary.records(mavenSession.getRequest()).peek())
+            .containsEntry(BuildSummary.VIOLATIONS, 0);
+
+        rule.setGenerate("bom");
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'generate'. Must be 'none', 'dependencies' or 'pom': 'bom'");
+    }
+
+    @Test
+    void testWarnRedundantPatterns() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject fooBar = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "foo-bar", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject fooBaz = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "foo-baz", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom", Arrays.asList(
+                createDependency("com.github.mikkoi", "foo-bar", "1.0.0", "jar", null)));
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(
+            Arrays.asList(fooBar, fooBaz, aggregator)));
+        mavenSession.setCurrentProject(aggregator);
+
+        // Redundant patterns are removed; the selection is the same.
+        DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        EnforcerLogger log = createTestLogger();
+        rule.setLog(log);
+        rule.setIncludes(Arrays.asList("com.github.mikkoi:foo-bar", "com.github.mikkoi:foo-*",
+            "com.github.mikkoi:foo-bar:jar"));
+        rule.setExcludes(Arrays.asList("foo-baz", "*:foo-baz"));
+        assertThatNoException().isThrownBy(rule::execute);
+        Mockito.verify(log, Mockito.never()).warn(Mockito.contains("is redundant"));
+
+        rule = new DependOnAllProjects(mavenSession);
+        log = createTestLogger();
+        rule.setLog(log);
+        rule.setIncludes(Arrays.asList("com.github.mikkoi:foo-bar", "com.github.mikkoi:foo-*",
+            "com.github.mikkoi:foo-bar:jar"));
+        rule.setExcludes(Arrays.asList("foo-baz", "*:foo-baz"));
+        rule.setWarnRedundantPatterns("true");
+        assertThatNoException().isThrownBy(rule::execute);
+        Mockito.verify(log).warn("Pattern 'com.github.mikkoi:foo-bar' in parameter 'includes' is redundant:"
+            + " 'com.github.mikkoi:foo-*' matches every project it matches");
+        Mockito.verify(log).warn("Pattern 'com.github.mikkoi:foo-bar:jar' in parameter 'includes' is redundant:"
+            + " 'com.github.mikkoi:foo-*' matches every project it matches");
+        Mockito.verify(log).warn("Pattern '*:foo-baz' in parameter 'excludes' is redundant:"
+            + " 'foo-baz' matches every project it matches");
+    }
+
+    @Test
+    void testAllValidationProblemsAtOnce() {
+        final MavenSession mavenSession = createTestMavenSession();
+        final DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setErrorIfUnknownProject("true");
+        rule.setFailFast("maybe");
+        rule.setIncludes(Arrays.asList(null, " ", "a:b:c:d", "unknown-project", "test-artifact-a"));
+        rule.setExcludes(Collections.singletonList("\t"));
+        rule.setIncludePaths(Collections.singletonList("a/**/b"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'failFast'. Must be 'true' or 'false': 'maybe'\n"
+                + "Failure in parameter 'includePaths'. Invalid path 'a/**/b': '**' must be the last directory name\n"
+                + "Failure in parameter 'includes'. String is null\n"
+                + "Failure in parameter 'includes'. String contains only whitespace: ' '\n"
+                + "Failure in parameter 'includes'. String is invalid: 'a:b:c:d'\n"
+                + "Failure in parameter 'includes'. Project 'unknown-project' not found in build\n"
+                + "Failure in parameter 'excludes'. String contains only whitespace: '\t'");
+    }
+
+    @Test
+    void testTimeBreakdownPhases() throws EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        final DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        final EnforcerLogger log = createTestLogger();
+        rule.setLog(log);
+        rule.setExcludes(Collections.singletonList("test-artifact-*"));
+        rule.execute();
+        Mockito.verify(log).debug(Mockito.matches("Time: validation \\d+ ms, indexing \\d+ ms, compilation \\d+ ms,"
+            + " matching \\d+ ms, comparison \\d+ ms, report \\d+ ms"));
+    }
+
+    @Test
+    void testBlankPaths() {
+        final MavenSession mavenSession = createTestMavenSession();
+        final DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setIncludePaths(Arrays.asList("services/**", " "));
+        rule.setExcludePaths(Collections.singletonList("\t"));
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Failure in parameter 'includePaths'. String contains only whitespace: ' '\n"
+                + "Failure in parameter 'excludePaths'. String contains only whitespace: '\t'");
+    }
+
+    @Test
+    void testGenerateKeepsOtherViolations(@TempDir Path tempDir) {
+        final MavenSession mavenSession = createTestMavenSession();
+        final MavenProject projA = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-a", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject projB = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "proj-b", "1.0.0", "jar", new ArrayList<>());
+        final MavenProject aggregator = createTestMavenProjectWithDependencies(
+            "com.github.mikkoi", "aggregator", "1.0.0", "pom", Arrays.asList(
+                createDependency("com.github.mikkoi", "proj-a", "1.0.0", "jar", null),
+                createDependency("com.github.mikkoi", "proj-a", "1.0.0", "jar", "test")));
+        aggregator.setFile(tempDir.resolve("pom.xml").toFile());
+        mavenSession.setProjectDependencyGraph(createTestProjectDependencyGraph(
+            Arrays.asList(projA, projB, aggregator)));
+        mavenSession.setCurrentProject(aggregator);
+
+        final DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        final EnforcerLogger log = createTestLogger();
+        rule.setLog(log);
+        rule.setErrorIfDuplicateDependency("true");
+        rule.setGenerate("dependencies");
+        // The generated file does not fix repeated declarations, so they still fail; the missing dependency warns.
+        assertThatExceptionOfType(EnforcerRuleException.class)
+            .isThrownBy(rule::execute)
+            .withMessage("Project 'com.github.mikkoi:aggregator' declares dependency"
+                + " 'com.github.mikkoi:proj-a:jar' version '1.0.0' 2 times: jar (compile), jar (test).");
+        Mockito.verify(log).warn("Project 'com.github.mikkoi:aggregator' is missing dependency"
+            + " 'com.github.mikkoi:proj-b:jar'.");
+        assertThat(BuildSummary.records(mavenSession.getRequest()).peek())
+            .containsEntry(BuildSummary.VIOLATIONS, 1);
+    }
 }
@@ -115,6 +115,11 @@ class DependOnAllProjectsTest {
         String e2 =
             "<dependency>\n  <groupId>com.github.mikkoi</groupId>\n  <artifactId>test-dependency</artifactId>\n</dependency>";
         assertThat(DependOnAllProjects.formatDependency(d1, "  ")).isEqualTo(e2);
+
+        d1.setScope("test");
+        String e3 =
+            "<dependency>\n  <groupId>com.github.mikkoi</groupId>\n  <artifactId>test-dependency</artifactId>\n  <scope>test</scope>\n</dependency>";
+        assertThat(DependOnAllProjects.formatDependency(d1, "  ")).isEqualTo(e3);
     }
 
     public static MavenProject createSimpleTestMavenProject(String groupId, String artifactId, String version, String packaging) {
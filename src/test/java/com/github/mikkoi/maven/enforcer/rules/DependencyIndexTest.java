@@ -0,0 +1,54 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsTest.createSimpleTestDependency;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.maven.model.Dependency;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * Unit tests for DependencyIndex.
+ */
+class DependencyIndexTest {
+
+    /** Distinct dependencies in the find test: my-artifact as jar and war, and other-artifact. */
+    private static final int NUM_FIND_DISTINCT = 3;
+    /** Distinct dependencies in the repeated declarations test: my-artifact jar in two versions, test-jar and other-artifact. */
+    private static final int NUM_REPEATED_DISTINCT = 4;
+
+    @Test
+    void testFind() {
+        Dependency d1 = createSimpleTestDependency("com.example", "my-artifact", "1.0.0", "jar");
+        Dependency d2 = createSimpleTestDependency("com.example", "my-artifact", "1.0.0", "jar");
+        Dependency d3 = createSimpleTestDependency("com.example", "my-artifact", "1.0.0", "war");
+        Dependency d4 = createSimpleTestDependency("com.example", "other-artifact", "1.1.0", "jar");
+        DependencyIndex index = new DependencyIndex(Arrays.asList(d1, d2, d3, d4));
+
+        assertThat(index.size()).isEqualTo(NUM_FIND_DISTINCT);
+        assertThat(index.find(createSimpleTestDependency("com.example", "my-artifact", "1.0.0", "jar"))).isSameAs(d1);
+        assertThat(index.find(createSimpleTestDependency("com.example", "my-artifact", "1.0.0", "war"))).isSameAs(d3);
+        assertThat(index.find(createSimpleTestDependency("com.example", "my-artifact", "1.1.0", "jar"))).isNull();
+        assertThat(index.find(createSimpleTestDependency("com.example", "other-artifact", "1.1.0", "pom"))).isNull();
+        assertThat(index.find(createSimpleTestDependency("com.other", "other-artifact", "1.1.0", "jar"))).isNull();
+    }
+
+    @Test
+    void testRepeatedDeclarations() {
+        Dependency d1 = createSimpleTestDependency("com.example", "my-artifact", "1.0.0", "jar");
+        Dependency d2 = createSimpleTestDependency("com.example", "my-artifact", "1.1.0", "jar");
+        Dependency d3 = createSimpleTestDependency("com.example", "my-artifact", "1.0.0", "jar");
+        Dependency d4 = createSimpleTestDependency("com.example", "my-artifact", "1.0.0", "test-jar");
+        Dependency d5 = createSimpleTestDependency("com.example", "other-artifact", "1.0.0", "jar");
+        DependencyIndex index = new DependencyIndex(Arrays.asList(d1, d2, d3, d4, d5));
+
+        assertThat(index.size()).isEqualTo(NUM_REPEATED_DISTINCT);
+        assertThat(index.find(createSimpleTestDependency("com.example", "my-artifact", "1.0.0", "jar"))).isSameAs(d1);
+        assertThat(index.find(createSimpleTestDependency("com.example", "my-artifact", "1.1.0", "jar"))).isSameAs(d2);
+        assertThat(index.find(createSimpleTestDependency("com.example", "my-artifact", "1.2.0", "jar"))).isNull();
+        assertThat(index.repeatedDeclarations()).containsOnlyKeys("com.example:my-artifact:jar");
+        assertThat(index.repeatedDeclarations().get("com.example:my-artifact:jar")).containsExactly(d1, d2, d3);
+        assertThat(new DependencyIndex(Arrays.asList(d1, d4, d5)).repeatedDeclarations()).isEmpty();
+    }
+}
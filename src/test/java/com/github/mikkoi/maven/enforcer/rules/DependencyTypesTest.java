@@ -0,0 +1,59 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.handler.manager.ArtifactHandlerManager;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+/**
+ * Unit tests for DependencyTypes.
+ */
+class DependencyTypesTest {
+
+    private static ArtifactHandler createTestArtifactHandler(String extension, String classifier) {
+        final ArtifactHandler handler = Mockito.mock(ArtifactHandler.class);
+        Mockito.when(handler.getExtension()).thenReturn(extension);
+        Mockito.when(handler.getClassifier()).thenReturn(classifier);
+        return handler;
+    }
+
+    /**
+     * Artifact handlers like in a build with maven-bundle-plugin as an extension.
+     * Unknown types have the type as extension, like in Maven.
+     *
+     * @return The artifact handler manager
+     */
+    public static ArtifactHandlerManager createTestArtifactHandlerManager() {
+        final ArtifactHandler jar = createTestArtifactHandler("jar", null);
+        final ArtifactHandler testJar = createTestArtifactHandler("jar", "tests");
+        final ArtifactHandlerManager manager = Mockito.mock(ArtifactHandlerManager.class);
+        Mockito.when(manager.getArtifactHandler(ArgumentMatchers.anyString()))
+            .thenAnswer(invocation -> new DefaultArtifactHandler(invocation.getArgument(0)));
+        Mockito.when(manager.getArtifactHandler("maven-plugin")).thenReturn(jar);
+        Mockito.when(manager.getArtifactHandler("bundle")).thenReturn(jar);
+        Mockito.when(manager.getArtifactHandler("test-jar")).thenReturn(testJar);
+        return manager;
+    }
+
+    @Test
+    void testCanonical() {
+        final ArtifactHandlerManager manager = createTestArtifactHandlerManager();
+        final DependencyTypes types = new DependencyTypes(manager);
+        assertThat(types.canonical("jar")).isEqualTo("jar");
+        assertThat(types.canonical("bundle")).isEqualTo("jar");
+        assertThat(types.canonical("maven-plugin")).isEqualTo("jar");
+        assertThat(types.canonical("war")).isEqualTo("war");
+        assertThat(types.canonical("test-jar")).isEqualTo("test-jar");
+        assertThat(types.canonical(null)).isNull();
+
+        // Resolved only once.
+        assertThat(types.canonical("bundle")).isEqualTo("jar");
+        Mockito.verify(manager, Mockito.times(1)).getArtifactHandler("bundle");
+
+        assertThat(DependencyTypes.RAW.canonical("bundle")).isEqualTo("bundle");
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unit tests for ExecutionTimer.
+ */
+class ExecutionTimerTest {
+
+    /** Duration of the validation lap. */
+    private static final long VALIDATION_MILLIS = 5;
+    /** Duration of the first matching lap. */
+    private static final long MATCHING_MILLIS = 20;
+    /** Duration of the comparison lap. */
+    private static final long COMPARISON_MILLIS = 2;
+    /** Duration of the second matching lap, added to the first one. */
+    private static final long MORE_MATCHING_MILLIS = 3;
+
+    @Test
+    void testBreakdown() {
+        final AtomicLong now = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(1000));
+        final ExecutionTimer timer = new ExecutionTimer(now::get);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(VALIDATION_MILLIS));
+        timer.lap("validation");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(MATCHING_MILLIS));
+        timer.lap("matching");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(COMPARISON_MILLIS));
+        timer.lap("comparison");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(MORE_MATCHING_MILLIS));
+        timer.lap("matching");
+        assertThat(timer.breakdown()).isEqualTo("validation 5 ms, matching 23 ms, comparison 2 ms");
+        assertThat(timer.elapsedMillis()).isEqualTo(VALIDATION_MILLIS + MATCHING_MILLIS + COMPARISON_MILLIS + MORE_MATCHING_MILLIS);
+    }
+}
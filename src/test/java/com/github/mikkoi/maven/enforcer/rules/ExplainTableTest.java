@@ -0,0 +1,27 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for ExplainTable.
+ */
+class ExplainTableTest {
+
+    @Test
+    void testFormat() {
+        final ExplainTable table = new ExplainTable(true);
+        table.add(new ProjectCoordinates("com.acme", "service-a", "1.0.0", "jar"), "services",
+            "com.acme:service-*", null, CoverageMatrix.COVERED);
+        table.add(new ProjectCoordinates("com.acme", "lib", "1.0.0", "jar"), null,
+            null, null, CoverageMatrix.NOT_SELECTED);
+        table.add(new ProjectCoordinates("com.acme", "demo", "1.0.0", "war"), "services",
+            "path:services/**", "subtree:examples", CoverageMatrix.NOT_SELECTED);
+        assertThat(table.format()).containsExactly(
+            "project                 set       include             exclude           result",
+            "com.acme:service-a:jar  services  com.acme:service-*  -                 covered",
+            "com.acme:lib:jar        -         -                   -                 not-selected",
+            "com.acme:demo:war       services  path:services/**    subtree:examples  not-selected");
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsRuleTest.createDependency;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Unit tests for GeneratedDependencies.
+ */
+class GeneratedDependenciesTest {
+
+    @Test
+    void testPom(@TempDir Path tempDir) throws IOException {
+        final File file = GeneratedDependencies.file(tempDir.toFile(), GeneratedDependencies.FORMAT_POM);
+        GeneratedDependencies.write(file, GeneratedDependencies.FORMAT_POM,
+            new ProjectCoordinates("com.acme", "aggregator", "1.0.0", "pom"), Arrays.asList(
+                createDependency("com.acme", "service", "1.0.0", "jar", null),
+                createDependency("com.acme", "webapp", "1.0.0", "war", "runtime")));
+        assertThat(file.getName()).isEqualTo("dependOnAllProjects-pom.xml");
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)).containsSequence(
+            "    <modelVersion>4.0.0</modelVersion>",
+            "    <groupId>com.acme</groupId>",
+            "    <artifactId>aggregator-aggregate-all</artifactId>",
+            "    <version>1.0.0</version>",
+            "    <packaging>pom</packaging>",
+            "    <dependencies>",
+            "        <dependency>",
+            "            <groupId>com.acme</groupId>",
+            "            <artifactId>service</artifactId>",
+            "            <version>1.0.0</version>",
+            "        </dependency>",
+            "        <dependency>",
+            "            <groupId>com.acme</groupId>",
+            "            <artifactId>webapp</artifactId>",
+            "            <version>1.0.0</version>",
+            "            <type>war</type>",
+            "            <scope>runtime</scope>",
+            "        </dependency>",
+            "    </dependencies>",
+            "</project>");
+    }
+}
@@ -0,0 +1,246 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsRuleTest.createDependency;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Differential tests for the matching fast paths.
+ * Random coordinates and patterns are generated, and every optimized match and lookup
+ * is compared with the reference implementation in DependOnAllProjects.
+ * The seed is printed in every failure; run again with -Dmatcher.seed=... to reproduce.
+ */
+class MatcherDifferentialTest {
+
+    /** Number of random reactors per test. */
+    private static final int ROUNDS = 500;
+    /** Name parts the coordinates are built from. "axb" and "a.b" check the escaping of '.'. */
+    private static final String[] NAMES = {"a", "b", "ab", "a.b", "axb", "a-b", "a_b", "1", "b.a.b"};
+    /** Packaging types. */
+    private static final String[] PACKAGINGS = {"jar", "war", "pom", "a", "b.a"};
+    /** Pieces the patterns are built from. */
+    private static final String[] PIECES = {"a", "b", "x", "1", ".", "-", "_", "*", "ab", "a.b", "jar", "pom"};
+    /** Seed used when -Dmatcher.seed is not given. */
+    private static final long DEFAULT_SEED = 20261019L;
+    /** Patterns or definitions tried against every random reactor. */
+    private static final int TRIES_PER_ROUND = 10;
+    /** Maximum number of pieces in one part of a pattern. */
+    private static final int MAX_PIECES = 3;
+    /** One in this many parts of a pattern is empty. */
+    private static final int EMPTY_PART_ODDS = 8;
+    /** One in this many projects has no dependency on it. */
+    private static final int MISSING_DEPENDENCY_ODDS = 4;
+    /** One in this many dependencies has another version, or another type. */
+    private static final int MISMATCH_ODDS = 8;
+
+    private static long seed() {
+        return Long.getLong("matcher.seed", DEFAULT_SEED);
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<ProjectCoordinates> randomProjects(Random random) {
+        final List<ProjectCoordinates> projects = new ArrayList<>();
+        final int size = 1 + random.nextInt(12);
+        for (int i = 0; i < size; i++) {
+            projects.add(new ProjectCoordinates(pick(random, NAMES), pick(random, NAMES),
+                "1.0.0", pick(random, PACKAGINGS)));
+        }
+        return projects;
+    }
+
+    /**
+     * A pattern of one to three parts. Artifact id alone, groupId:artifactId and full patterns,
+     * with or without wildcards, sometimes with an empty part.
+     *
+     * @param random Random generator
+     * @return The pattern
+     */
+    private static String randomPattern(Random random) {
+        final int parts = 1 + random.nextInt(DependOnAllProjects.MAX_NUM_PARTS_IN_DEPENDENCY_DECLARATION);
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts; i++) {
+            if (i > 0) {
+                sb.append(':');
+            }
+            final int pieces = random.nextInt(EMPTY_PART_ODDS) == 0 ? 0 : 1 + random.nextInt(MAX_PIECES);
+            for (int j = 0; j < pieces; j++) {
+                sb.append(pick(random, PIECES));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A project definition without wildcards, as in the parameter errorIfUnknownProject.
+     *
+     * @param random Random generator
+     * @param projects Projects of the reactor, the definition is often one of them
+     * @return The definition
+     */
+    private static String randomDefinition(Random random, List<ProjectCoordinates> projects) {
+        final ProjectCoordinates p = projects.get(random.nextInt(projects.size()));
+        final String groupId = random.nextBoolean() ? p.getGroupId() : pick(random, NAMES);
+        final String artifactId = random.nextBoolean() ? p.getArtifactId() : pick(random, NAMES);
+        final String packaging = random.nextBoolean() ? p.getPackaging() : pick(random, PACKAGINGS);
+        switch (random.nextInt(DependOnAllProjects.MAX_NUM_PARTS_IN_DEPENDENCY_DECLARATION)) {
+            case 0:
+                return artifactId;
+            case 1:
+                return groupId + ':' + artifactId;
+            default:
+                return groupId + ':' + artifactId + ':' + packaging;
+        }
+    }
+
+    private static MavenProject toMavenProject(ProjectCoordinates p) {
+        final Model model = new Model();
+        model.setGroupId(p.getGroupId());
+        model.setArtifactId(p.getArtifactId());
+        model.setVersion(p.getVersion());
+        model.setPackaging(p.getPackaging());
+        return new MavenProject(model);
+    }
+
+    private static List<String> randomPatterns(Random random, int max) {
+        final List<String> patterns = new ArrayList<>();
+        final int size = random.nextInt(max + 1);
+        for (int i = 0; i < size; i++) {
+            patterns.add(randomPattern(random));
+        }
+        return patterns;
+    }
+
+    private static List<ProjectSelector> toSelectors(List<String> patterns) {
+        final List<ProjectSelector> selectors = new ArrayList<>();
+        for (String pattern : patterns) {
+            selectors.add(new ProjectSelector(pattern));
+        }
+        return selectors;
+    }
+
+    @Test
+    void testSelectorMatchesReference() {
+        final long seed = seed();
+        final Random random = new Random(seed);
+        for (int round = 0; round < ROUNDS; round++) {
+            final List<ProjectCoordinates> projects = randomProjects(random);
+            final ReactorIndex index = new ReactorIndex(projects);
+            for (int k = 0; k < TRIES_PER_ROUND; k++) {
+                final String pattern = randomPattern(random);
+                final ProjectSelector selector = new ProjectSelector(pattern);
+                final BitSet candidates = index.candidates(selector);
+                for (int i = 0; i < projects.size(); i++) {
+                    final ProjectCoordinates p = projects.get(i);
+                    final boolean expected = p.getMatchId().matches(DependOnAllProjects.convertStringForMatching(pattern));
+                    final String description = String.format("seed %d, pattern '%s', project '%s'",
+                        seed, pattern, p.getMatchId());
+                    assertThat(selector.matches(p)).as(description).isEqualTo(expected);
+                    assertThat(RuleCache.selector(pattern).matches(p)).as(description).isEqualTo(expected);
+                    if (expected) {
+                        assertThat(candidates.get(i)).as("candidates, " + description).isTrue();
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testSelectMatchesReference() {
+        final long seed = seed();
+        final Random random = new Random(seed);
+        for (int round = 0; round < ROUNDS; round++) {
+            final List<ProjectCoordinates> projects = randomProjects(random);
+            final ReactorIndex index = new ReactorIndex(projects);
+            final List<String> includes = randomPatterns(random, 3);
+            final List<String> excludes = randomPatterns(random, 3);
+            final BitSet selected = index.select(toSelectors(includes), toSelectors(excludes));
+            for (int i = 0; i < projects.size(); i++) {
+                final ProjectCoordinates p = projects.get(i);
+                assertThat(selected.get(i))
+                    .as("seed %d, includes %s, excludes %s, project '%s'", seed, includes, excludes, p.getMatchId())
+                    .isEqualTo(DependOnAllProjects.isProjectIncluded(includes, excludes, toMavenProject(p)));
+            }
+        }
+    }
+
+    @Test
+    void testNormalizedPatternsMatchReference() {
+        final long seed = seed();
+        final Random random = new Random(seed);
+        final List<String> all = Collections.singletonList("*");
+        for (int round = 0; round < ROUNDS; round++) {
+            final List<ProjectCoordinates> projects = randomProjects(random);
+            final List<String> patterns = randomPatterns(random, 6);
+            final List<String> normalized = PatternNormalizer.normalize(patterns, (pattern, coveredBy) -> { });
+            for (ProjectCoordinates p : projects) {
+                final MavenProject mavenProject = toMavenProject(p);
+                final String description = String.format("seed %d, patterns %s, normalized %s, project '%s'",
+                    seed, patterns, normalized, p.getMatchId());
+                assertThat(DependOnAllProjects.isProjectIncluded(normalized, Collections.emptyList(), mavenProject))
+                    .as("includes, " + description)
+                    .isEqualTo(DependOnAllProjects.isProjectIncluded(patterns, Collections.emptyList(), mavenProject));
+                assertThat(DependOnAllProjects.isProjectIncluded(all, normalized, mavenProject))
+                    .as("excludes, " + description)
+                    .isEqualTo(DependOnAllProjects.isProjectIncluded(all, patterns, mavenProject));
+            }
+        }
+    }
+
+    @Test
+    void testContainsMatchesReference() {
+        final long seed = seed();
+        final Random random = new Random(seed);
+        for (int round = 0; round < ROUNDS; round++) {
+            final List<ProjectCoordinates> projects = randomProjects(random);
+            final ReactorIndex index = new ReactorIndex(projects);
+            final List<MavenProject> mavenProjects = new ArrayList<>();
+            for (ProjectCoordinates p : projects) {
+                mavenProjects.add(toMavenProject(p));
+            }
+            for (int k = 0; k < TRIES_PER_ROUND; k++) {
+                final String definition = randomDefinition(random, projects);
+                assertThat(index.contains(definition))
+                    .as("seed %d, definition '%s', projects %s", seed, definition, projects)
+                    .isEqualTo(DependOnAllProjects.projectsContains(mavenProjects, definition));
+            }
+        }
+    }
+
+    @Test
+    void testDependencyIndexMatchesReference() {
+        final long seed = seed();
+        final Random random = new Random(seed);
+        for (int round = 0; round < ROUNDS; round++) {
+            final List<ProjectCoordinates> projects = randomProjects(random);
+            final List<Dependency> dependencies = new ArrayList<>();
+            for (ProjectCoordinates p : projects) {
+                if (random.nextInt(MISSING_DEPENDENCY_ODDS) > 0) {
+                    dependencies.add(createDependency(p.getGroupId(), p.getArtifactId(),
+                        random.nextInt(MISMATCH_ODDS) == 0 ? "2.0.0" : p.getVersion(),
+                        random.nextInt(MISMATCH_ODDS) == 0 ? pick(random, PACKAGINGS) : p.getPackaging(),
+                        random.nextBoolean() ? null : "test"));
+                }
+            }
+            final DependencyIndex index = new DependencyIndex(dependencies);
+            for (ProjectCoordinates p : projects) {
+                final Dependency expected = p.toDependency();
+                assertThat(index.find(expected))
+                    .as("seed %d, project '%s', dependencies %s", seed, p.getMatchId(), dependencies)
+                    .isSameAs(DependOnAllProjects.findDependency(dependencies, expected));
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Unit tests for PathTrie.
+ */
+class PathTrieTest {
+
+    /** Project paths of the test trie, the position of a project is its index. */
+    private static final List<String> PATHS = Arrays.asList("", "services", "services/billing",
+        "services/billing/api", "services/orders", "libs/legacy/old", "libs/common");
+
+    private static PathTrie createTestPathTrie() {
+        final PathTrie trie = new PathTrie();
+        for (int i = 0; i < PATHS.size(); i++) {
+            trie.add(PATHS.get(i), i);
+        }
+        return trie;
+    }
+
+    /**
+     * Positions of projects in the test trie.
+     *
+     * @param paths Project paths
+     * @return The positions of the projects
+     */
+    private static BitSet bits(String... paths) {
+        final BitSet bits = new BitSet();
+        for (String path : paths) {
+            bits.set(PATHS.indexOf(path));
+        }
+        return bits;
+    }
+
+    @Test
+    void testSelect() {
+        final PathTrie trie = createTestPathTrie();
+        assertThat(trie.select(PathTrie.parse(""))).isEqualTo(bits(""));
+        assertThat(trie.select(PathTrie.parse("."))).isEqualTo(bits(""));
+        assertThat(trie.select(PathTrie.parse("**"))).isEqualTo(bits(PATHS.toArray(new String[0])));
+        assertThat(trie.select(PathTrie.parse("services"))).isEqualTo(bits("services"));
+        assertThat(trie.select(PathTrie.parse("services/**"))).isEqualTo(
+            bits("services", "services/billing", "services/billing/api", "services/orders"));
+        assertThat(trie.select(PathTrie.parse("./services/*/"))).isEqualTo(bits("services/billing", "services/orders"));
+        assertThat(trie.select(PathTrie.parse("*/*"))).isEqualTo(bits("services/billing", "services/orders", "libs/common"));
+        assertThat(trie.select(PathTrie.parse("libs/legacy/**"))).isEqualTo(bits("libs/legacy/old"));
+        assertThat(trie.select(PathTrie.parse("libs\\common"))).isEqualTo(bits("libs/common"));
+        assertThat(trie.select(PathTrie.parse("libs/legacy"))).isEqualTo(bits());
+        assertThat(trie.select(PathTrie.parse("unknown/**"))).isEqualTo(bits());
+    }
+
+    @Test
+    void testParse() {
+        assertThat(PathTrie.parse("/services//billing/")).containsExactly("services", "billing");
+        assertThatIllegalArgumentException().isThrownBy(() -> PathTrie.parse("services/**/api"))
+            .withMessage("'**' must be the last directory name");
+        assertThatIllegalArgumentException().isThrownBy(() -> PathTrie.parse("services/bill*"))
+            .withMessage("'*' must be a whole directory name");
+    }
+}
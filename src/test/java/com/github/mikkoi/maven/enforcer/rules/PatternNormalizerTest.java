@@ -0,0 +1,50 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for PatternNormalizer.
+ */
+class PatternNormalizerTest {
+
+    @Test
+    void testNormalize() {
+        final List<String> redundant = new ArrayList<>();
+        final List<String> normalized = PatternNormalizer.normalize(Arrays.asList(
+                "com.acme:foo-bar", "other", "com.acme:foo-*", "*:other", "com.acme:foo-bar:jar", "com.acme:f?o"),
+            (pattern, coveredBy) -> redundant.add(pattern + " <= " + coveredBy));
+        assertThat(normalized).containsExactly("com.acme:foo-*", "other", "com.acme:f?o");
+        assertThat(redundant).containsExactly(
+            "com.acme:foo-bar <= com.acme:foo-*",
+            "*:other <= other",
+            "com.acme:foo-bar:jar <= com.acme:foo-*");
+
+        // Everything is covered by the default include.
+        assertThat(PatternNormalizer.normalize(Arrays.asList("a", "*", "b:c:war"), (pattern, coveredBy) -> { }))
+            .containsExactly("*");
+        // Nothing to remove.
+        assertThat(PatternNormalizer.normalize(Arrays.asList("a:*", "*:b"), (pattern, coveredBy) -> { }))
+            .containsExactly("a:*", "*:b");
+    }
+
+    @Test
+    void testCovers() {
+        assertThat(PatternNormalizer.glob("foo")).isEqualTo("*:foo:*");
+        assertThat(PatternNormalizer.glob("com.acme:foo")).isEqualTo("com.acme:foo:*");
+        assertThat(PatternNormalizer.glob("com.acme:foo:war")).isEqualTo("com.acme:foo:war");
+        assertThat(PatternNormalizer.glob("foo[0-9]")).isNull();
+
+        assertThat(PatternNormalizer.covers("a*", "a*b")).isTrue();
+        assertThat(PatternNormalizer.covers("a*b", "a*")).isFalse();
+        assertThat(PatternNormalizer.covers("*ab*", "*a*b*")).isFalse();
+        assertThat(PatternNormalizer.covers("*:*:*", "*:foo:*")).isTrue();
+        assertThat(PatternNormalizer.covers("*:foo:*", "*:*:*")).isFalse();
+        assertThat(PatternNormalizer.covers("a.b", "axb")).isFalse();
+    }
+}
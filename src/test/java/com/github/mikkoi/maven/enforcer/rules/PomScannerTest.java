@@ -0,0 +1,112 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Unit tests for PomScanner.
+ */
+class PomScannerTest {
+
+    private static File writePom(Path dir, String content) throws IOException {
+        Files.createDirectories(dir);
+        final Path pom = dir.resolve("pom.xml");
+        Files.write(pom, content.getBytes(StandardCharsets.UTF_8));
+        return pom.toFile();
+    }
+
+    @Test
+    void testScan(@TempDir Path tempDir) throws IOException {
+        final File root = writePom(tempDir, "<project>\n"
+            + "  <modelVersion>4.0.0</modelVersion>\n"
+            + "  <groupId>com.acme</groupId>\n"
+            + "  <artifactId>root</artifactId>\n"
+            + "  <version>${revision}</version>\n"
+            + "  <packaging>pom</packaging>\n"
+            + "  <properties><revision>1.0.0</revision><web.packaging>war</web.packaging></properties>\n"
+            + "  <dependencies><dependency><groupId>x</groupId><artifactId>y</artifactId>"
+            + "<version>1</version></dependency></dependencies>\n"
+            + "  <modules><module>lib</module><module>web/pom.xml</module></modules>\n"
+            + "</project>\n");
+        writePom(tempDir.resolve("lib"), "<project>\n"
+            + "  <parent><groupId>com.acme</groupId><artifactId>root</artifactId>"
+            + "<version>${revision}</version></parent>\n"
+            + "  <artifactId>lib</artifactId>\n"
+            + "</project>\n");
+        writePom(tempDir.resolve("web"), "<project>\n"
+            + "  <parent><groupId>com.acme</groupId><artifactId>root</artifactId>"
+            + "<version>${revision}</version></parent>\n"
+            + "  <groupId>com.acme.web</groupId>\n"
+            + "  <artifactId>${project.groupId}-app</artifactId>\n"
+            + "  <packaging>${web.packaging}</packaging>\n"
+            + "</project>\n");
+
+        final PomScanner.ScannedProject project = new PomScanner(new Properties(), new Properties()).scan(root);
+        final List<String> coordinates = new ArrayList<>();
+        for (PomScanner.ScannedProject p : PomScanner.flatten(project)) {
+            coordinates.add(p.getCoordinates().toString());
+        }
+        assertThat(coordinates).containsExactly(
+            "com.acme:root:1.0.0:pom",
+            "com.acme:lib:1.0.0:jar",
+            "com.acme.web:com.acme.web-app:1.0.0:war");
+        assertThat(project.getModules().get(1).getPomFile().getParentFile().getName()).isEqualTo("web");
+
+        // User properties, e.g. -Drevision=2.0.0, override the POM.
+        final Properties userProperties = new Properties();
+        userProperties.setProperty("revision", "2.0.0");
+        final PomScanner.ScannedProject overridden = new PomScanner(userProperties, new Properties()).scan(root);
+        assertThat(overridden.getModules().get(0).getCoordinates().getVersion()).isEqualTo("2.0.0");
+    }
+
+    @Test
+    void testScanFailure(@TempDir Path tempDir) throws IOException {
+        final File root = writePom(tempDir, "<project><artifactId>root</artifactId>"
+            + "<modules><module>missing</module></modules></project>");
+        assertThatThrownBy(() -> new PomScanner(new Properties(), new Properties()).scan(root)).isInstanceOf(IOException.class);
+        final File broken = writePom(tempDir.resolve("broken"), "<project><artifactId>");
+        assertThatThrownBy(() -> new PomScanner(new Properties(), new Properties()).scan(broken))
+            .isInstanceOf(IOException.class).hasMessageContaining("Cannot parse POM file");
+    }
+
+    @Test
+    void testResolve() {
+        final Properties properties = new Properties();
+        properties.setProperty("a", "${b}");
+        properties.setProperty("b", "value");
+        final PomScanner scanner = new PomScanner(new Properties(), new Properties());
+        assertThat(scanner.resolve("x-${a}-${unknown}", properties)).isEqualTo("x-value-${unknown}");
+        properties.setProperty("loop", "${loop}");
+        assertThat(scanner.resolve("${loop}", properties)).isEqualTo("${loop}");
+    }
+
+    @Test
+    void testResolvePrecedence() {
+        final Properties userProperties = new Properties();
+        userProperties.setProperty("revision", "2.0.0");
+        final Properties systemProperties = new Properties();
+        systemProperties.setProperty("revision", "3.0.0");
+        systemProperties.setProperty("java.version", "17");
+        systemProperties.setProperty("os.name", "Linux");
+        final Properties properties = new Properties();
+        properties.setProperty("revision", "1.0.0");
+        properties.setProperty("java.version", "1.8");
+        final PomScanner scanner = new PomScanner(userProperties, systemProperties);
+        // User properties first, then the POM, then system properties.
+        assertThat(scanner.resolve("${revision}", properties)).isEqualTo("2.0.0");
+        assertThat(scanner.resolve("${java.version}", properties)).isEqualTo("1.8");
+        assertThat(scanner.resolve("${os.name}", properties)).isEqualTo("Linux");
+    }
+}
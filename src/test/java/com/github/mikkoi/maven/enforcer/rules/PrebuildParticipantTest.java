@@ -0,0 +1,80 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsRuleTest.createTestLogger;
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsRuleTest.createTestMavenSession;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+
+/**
+ * Unit tests for PrebuildParticipant.
+ */
+class PrebuildParticipantTest {
+
+    @AfterEach
+    void clearCache() {
+        RuleCache.clear();
+    }
+
+    private static void addEnforcerExecution(MavenProject project, String rules)
+        throws XmlPullParserException, IOException {
+        final Xpp3Dom configuration = Xpp3DomBuilder.build(new StringReader(
+            "<configuration><rules>" + rules + "</rules></configuration>"));
+        final PluginExecution execution = new PluginExecution();
+        execution.setId("enforce");
+        execution.setConfiguration(configuration);
+        final Plugin plugin = new Plugin();
+        plugin.setGroupId("org.apache.maven.plugins");
+        plugin.setArtifactId("maven-enforcer-plugin");
+        plugin.addExecution(execution);
+        final Build build = new Build();
+        build.addPlugin(plugin);
+        project.getModel().setBuild(build);
+    }
+
+    @Test
+    void testPrebuild() throws XmlPullParserException, IOException, EnforcerRuleException {
+        final MavenSession mavenSession = createTestMavenSession();
+        addEnforcerExecution(mavenSession.getCurrentProject(), "<dependOnAllProjects>"
+            + "<excludes><exclude>test-artifact-*</exclude><exclude>[</exclude></excludes>"
+            + "<selectionSets><selectionSet><includes><include>com.github.mikkoi:*</include></includes>"
+            + "</selectionSet></selectionSets>"
+            + "</dependOnAllProjects>");
+
+        new PrebuildParticipant().afterProjectsRead(mavenSession);
+        final ReactorIndex index = RuleCache.prebuiltReactorIndex(mavenSession);
+        assertThat(index).isNotNull();
+        assertThat(index.size()).isEqualTo(mavenSession.getProjectDependencyGraph().getSortedProjects().size());
+        assertThat(RuleCache.prebuiltSelectors(mavenSession))
+            .containsOnlyKeys("*", "test-artifact-*", "com.github.mikkoi:*");
+
+        // The rule uses the prebuilt index and selectors.
+        final DependOnAllProjects rule = new DependOnAllProjects(mavenSession);
+        rule.setLog(createTestLogger());
+        rule.setExcludes(Collections.singletonList("test-artifact-*"));
+        rule.execute();
+        assertThat(rule.buildReactorIndex()).isSameAs(index);
+    }
+
+    @Test
+    void testNoRule() {
+        final MavenSession mavenSession = createTestMavenSession();
+        new PrebuildParticipant().afterProjectsRead(mavenSession);
+        assertThat(RuleCache.prebuiltReactorIndex(mavenSession)).isNull();
+        assertThat(RuleCache.prebuiltSelectors(mavenSession)).isEmpty();
+    }
+}
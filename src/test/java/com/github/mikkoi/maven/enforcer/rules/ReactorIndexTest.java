@@ -0,0 +1,133 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Unit tests for ReactorIndex and ProjectSelector.
+ */
+class ReactorIndexTest {
+
+    /** Position of com.acme:a:jar in the subtree test. */
+    private static final int A = 2;
+    /** Position of com.acme:b:jar in the subtree test. */
+    private static final int B = 3;
+    /** Position of com.acme:lib:jar in the subtree test. */
+    private static final int LIB = 4;
+
+    public static ReactorIndex createTestReactorIndex(String... ids) {
+        final List<ProjectCoordinates> projects = new ArrayList<>();
+        for (String s : ids) {
+            final String[] parts = s.split(":");
+            projects.add(new ProjectCoordinates(parts[0], parts[1], "1.0.0", parts[2]));
+        }
+        return new ReactorIndex(projects);
+    }
+
+    private static List<ProjectSelector> selectors(String... patterns) {
+        final List<ProjectSelector> selectors = new ArrayList<>();
+        for (String pattern : patterns) {
+            selectors.add(new ProjectSelector(pattern));
+        }
+        return selectors;
+    }
+
+    @Test
+    void testLiterals() {
+        ProjectSelector s1 = new ProjectSelector("*:*:war");
+        assertThat(s1.getLiteralGroupId()).isNull();
+        assertThat(s1.getLiteralPackaging()).isEqualTo("war");
+        ProjectSelector s2 = new ProjectSelector("com.acme:*:pom");
+        assertThat(s2.getLiteralGroupId()).isEqualTo("com.acme");
+        assertThat(s2.getLiteralPackaging()).isEqualTo("pom");
+        ProjectSelector s3 = new ProjectSelector("com.acme:proj-a");
+        assertThat(s3.getLiteralGroupId()).isEqualTo("com.acme");
+        assertThat(s3.getLiteralPackaging()).isNull();
+        ProjectSelector s4 = new ProjectSelector("war");
+        assertThat(s4.getLiteralGroupId()).isNull();
+        assertThat(s4.getLiteralPackaging()).isNull();
+        ProjectSelector s5 = new ProjectSelector("com.acme*:proj-a:ja?");
+        assertThat(s5.getLiteralGroupId()).isNull();
+        assertThat(s5.getLiteralPackaging()).isNull();
+    }
+
+    @Test
+    void testCandidates() {
+        ReactorIndex index = createTestReactorIndex("com.acme:a:jar", "com.acme:b:war",
+            "com.other:c:war", "com.acme:d:pom");
+        assertThat(index.candidates(new ProjectSelector("*:*:war")).toString()).isEqualTo("{1, 2}");
+        assertThat(index.candidates(new ProjectSelector("com.acme:*:war")).toString()).isEqualTo("{1}");
+        assertThat(index.candidates(new ProjectSelector("com.acme:*")).toString()).isEqualTo("{0, 1, 3}");
+        assertThat(index.candidates(new ProjectSelector("*:*:ear")).isEmpty()).isTrue();
+        assertThat(index.candidates(new ProjectSelector("b")).toString()).isEqualTo("{0, 1, 2, 3}");
+    }
+
+    @Test
+    void testSelect() {
+        ReactorIndex index = createTestReactorIndex("com.acme:a:jar", "com.acme:b:war",
+            "com.other:c:war", "com.acme:d:pom", "com.other:b:jar");
+        assertThat(index.select(selectors("*"), Collections.emptyList()).toString())
+            .isEqualTo("{0, 1, 2, 3, 4}");
+        assertThat(index.select(selectors("*:*:war", "com.acme:*:pom"), Collections.emptyList()).toString())
+            .isEqualTo("{1, 2, 3}");
+        assertThat(index.select(selectors("*"), selectors("*:*:war", "b")).toString())
+            .isEqualTo("{0, 3}");
+        assertThat(index.select(selectors("com.acme:*"), selectors("com.acme:d:pom")).toString())
+            .isEqualTo("{0, 1}");
+
+        for (String include : Arrays.asList("*", "b", "com.acme:*", "*:*:war", "com.other:*:jar", "*:b:*")) {
+            for (String exclude : Arrays.asList("a", "com.acme:*:pom", "*:*:war", "com.other:*")) {
+                BitSet selected = index.select(selectors(include), selectors(exclude));
+                for (int i = 0; i < index.size(); i++) {
+                    ProjectCoordinates p = index.getProjects().get(i);
+                    assertThat(selected.get(i)).isEqualTo(DependOnAllProjects.isProjectIncluded(
+                        Collections.singletonList(include), Collections.singletonList(exclude),
+                        DependOnAllProjectsTest.createSimpleTestMavenProject(p.getGroupId(), p.getArtifactId(),
+                            p.getVersion(), p.getPackaging())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMatchProperties() {
+        final List<ProjectCoordinates> projects = new ArrayList<>();
+        final List<Properties> properties = new ArrayList<>();
+        for (String value : new String[] {"true", "false", null}) {
+            projects.add(new ProjectCoordinates("com.acme", "p" + projects.size(), "1.0.0", "jar"));
+            final Properties p = new Properties();
+            if (value != null) {
+                p.setProperty("aggregate", value);
+            }
+            properties.add(p);
+        }
+        final ReactorIndex index = new ReactorIndex(projects, properties);
+        assertThat(index.matchProperties(Collections.singletonList("aggregate=false")).toString()).isEqualTo("{1}");
+        assertThat(index.matchProperties(Collections.singletonList("aggregate")).toString()).isEqualTo("{0, 1}");
+        assertThat(index.matchProperties(Arrays.asList("aggregate = true", "unknown")).toString()).isEqualTo("{0}");
+        assertThat(index.matchProperties(Collections.singletonList("aggregate=maybe")).isEmpty()).isTrue();
+    }
+
+    @Test
+    void testSubtree() {
+        final ReactorIndex index = createTestReactorIndex(
+            "com.acme:root:pom", "com.acme:examples:pom", "com.acme:a:jar", "com.acme:b:jar", "com.acme:lib:jar");
+        index.addChild(0, 1);
+        index.addChild(0, LIB);
+        index.addChild(1, A);
+        index.addChild(A, B);
+        index.addChild(null, B);
+        assertThat(index.subtree(1).toString()).isEqualTo("{1, 2, 3}");
+        assertThat(index.subtree(1)).isSameAs(index.subtree(1));
+        assertThat(index.subtree(LIB).toString()).isEqualTo("{4}");
+        assertThat(index.matchSubtrees(selectors("examples", "lib")).toString()).isEqualTo("{1, 2, 3, 4}");
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsTest.createSimpleTestMavenProject;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for RuleCache.
+ */
+class RuleCacheTest {
+
+    @AfterEach
+    void clearCache() {
+        RuleCache.clear();
+    }
+
+    @Test
+    void testSelector() {
+        assertThat(RuleCache.selector("com.acme:*:war")).isSameAs(RuleCache.selector("com.acme:*:war"));
+        assertThat(RuleCache.selector("com.acme:*:war")).isNotSameAs(RuleCache.selector("com.acme:*:jar"));
+    }
+
+    @Test
+    void testReactorIndexInvalidatedWhenPomChanges(@TempDir Path tempDir) throws IOException {
+        final File pomA = tempDir.resolve("a-pom.xml").toFile();
+        Files.write(pomA.toPath(), "<project/>".getBytes(StandardCharsets.UTF_8));
+        final List<MavenProject> projects = new ArrayList<>();
+        final MavenProject projectA = createSimpleTestMavenProject("com.acme", "a", "1.0.0", "jar");
+        projectA.setFile(pomA);
+        projects.add(projectA);
+        projects.add(createSimpleTestMavenProject("com.acme", "b", "1.0.0", "war"));
+
+        final ReactorIndex first = RuleCache.reactorIndex(projects);
+        assertThat(first.size()).isEqualTo(2);
+        assertThat(RuleCache.reactorIndex(projects)).isSameAs(first);
+        // Same build, different MavenProject objects (next build in the daemon).
+        final List<MavenProject> nextBuild = new ArrayList<>();
+        final MavenProject nextA = createSimpleTestMavenProject("com.acme", "a", "1.0.0", "jar");
+        nextA.setFile(pomA);
+        nextBuild.add(nextA);
+        nextBuild.add(createSimpleTestMavenProject("com.acme", "b", "1.0.0", "war"));
+        assertThat(RuleCache.reactorIndex(nextBuild)).isSameAs(first);
+
+        Files.write(pomA.toPath(), "<project></project>".getBytes(StandardCharsets.UTF_8));
+        assertThat(RuleCache.reactorIndex(nextBuild)).isNotSameAs(first);
+    }
+
+    @Test
+    void testReactorIndexInvalidatedWhenPropertyChanges(@TempDir Path tempDir) throws IOException {
+        final File pomA = tempDir.resolve("a-pom.xml").toFile();
+        Files.write(pomA.toPath(), "<project/>".getBytes(StandardCharsets.UTF_8));
+        final MavenProject projectA = createSimpleTestMavenProject("com.acme", "a", "1.0.0", "jar");
+        projectA.setFile(pomA);
+        projectA.getProperties().setProperty("team", "red");
+        final ReactorIndex first = RuleCache.reactorIndex(Collections.singletonList(projectA));
+        assertThat(first.matchProperties(Collections.singletonList("team=red")).cardinality()).isEqualTo(1);
+
+        // Next build: same POM file, but the property comes from another profile.
+        final MavenProject nextA = createSimpleTestMavenProject("com.acme", "a", "1.0.0", "jar");
+        nextA.setFile(pomA);
+        nextA.getProperties().setProperty("team", "blue");
+        final ReactorIndex next = RuleCache.reactorIndex(Collections.singletonList(nextA));
+        assertThat(next).isNotSameAs(first);
+        assertThat(next.matchProperties(Collections.singletonList("team=red")).isEmpty()).isTrue();
+        assertThat(next.matchProperties(Collections.singletonList("team=blue")).cardinality()).isEqualTo(1);
+    }
+}
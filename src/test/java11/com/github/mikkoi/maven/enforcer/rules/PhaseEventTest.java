@@ -0,0 +1,56 @@
+package com.github.mikkoi.maven.enforcer.rules;
+
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsRuleTest.createTestLogger;
+import static com.github.mikkoi.maven.enforcer.rules.DependOnAllProjectsRuleTest.createTestMavenSession;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.maven.enforcer.rule.api.EnforcerRuleException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for the JFR version of PhaseEvent. Run with the Java 11 classes first, see profile 'jfr'.
+ */
+class PhaseEventTest {
+
+    private static final String EVENT_NAME = "com.github.mikkoi.maven.enforcer.rules.DependOnAllProjects.Phase";
+
+    @Test
+    void testEventPerPhase(@TempDir Path tempDir) throws EnforcerRuleException, IOException {
+        assertThat(Event.class).as("JFR version of PhaseEvent").isAssignableFrom(PhaseEvent.class);
+        final DependOnAllProjects rule = new DependOnAllProjects(createTestMavenSession());
+        rule.setLog(createTestLogger());
+        rule.setExcludes(Collections.singletonList("test-artifact-*"));
+        final Path file = tempDir.resolve("rule.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME);
+            recording.start();
+            rule.execute();
+            recording.stop();
+            recording.dump(file);
+        }
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+            .filter(e -> EVENT_NAME.equals(e.getEventType().getName()))
+            .collect(Collectors.toList());
+        assertThat(events).extracting(e -> e.getString("phase"))
+            .containsExactly("validation", "filtering", "comparison", "report");
+        for (RecordedEvent event : events) {
+            assertThat(event.getString("project")).isEqualTo("com.github.mikkoi:test-artifact");
+            assertThat(event.getInt("reactorSize")).isEqualTo(3);
+            assertThat(event.getInt("violationCount")).isZero();
+            assertThat(event.getDuration().isNegative()).as("duration").isFalse();
+            assertThat(event.getStartTime()).isNotNull();
+        }
+        assertThat(events.get(0).getInt("patternCount")).as("validation ends with the patterns").isEqualTo(2);
+    }
+}